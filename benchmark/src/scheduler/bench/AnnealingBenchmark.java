@@ -0,0 +1,98 @@
+package scheduler.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import scheduler.CompactSchedule;
+import scheduler.SASDC;
+import scheduler.Schedule;
+import scheduler.sdcutil.MoveGenerator;
+import scheduler.sdcutil.Neighbourhood;
+import scheduler.sdcutil.SDCEngine;
+import scheduler.sdcutil.SDCNodeList;
+import scheduler.sdcutil.SDCSolver;
+
+/**
+ * Benchmarks SASDC end to end and a single annealing step (modify and
+ * makeSchedule).
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AnnealingBenchmark {
+	/**
+	 * The state of an annealing chain, see SASDC.Chain.
+	 */
+	@State(Scope.Thread)
+	public static class Chain {
+		@Param({ "inc", "lpath", "nlp" })
+		public String engine;
+
+		@Param({ "shove" })
+		public String moves;
+
+		SDCNodeList nodes;
+		SDCSolver solver;
+		MoveGenerator generator;
+		Schedule current;
+		Random random;
+
+		@Setup(Level.Trial)
+		public void setUp(Inputs in) {
+			nodes = new SDCNodeList(in.rc, in.sg);
+			solver = SDCEngine.getEngine(engine).create(in.vars, null);
+			current = new CompactSchedule(in.index, in.vars, solver.solve(nodes), in.span);
+			generator = Neighbourhood.getNeighbourhood(moves).create();
+			random = new Random(45676415);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			solver.release();
+		}
+	}
+
+	@Param({ "1" })
+	public int quality;
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Schedule schedule(Inputs in) {
+		return new SASDC(in.rc, quality).schedule(in.sg);
+	}
+
+	/**
+	 * Draws a random move, solves the SDC and creates the schedule. The move is
+	 * reverted afterwards (like a rejected move), so the order stays the same
+	 * over all invocations.
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Schedule step(Inputs in, Chain c) {
+		c.generator.generate(c.nodes, c.current, c.random);
+		int[] d = c.solver.solve(c.nodes);
+		Schedule s = d == null ? null : new CompactSchedule(in.index, in.vars, d, in.span);
+		c.generator.revert(c.nodes);
+		c.solver.revert();
+		return s;
+	}
+}
@@ -0,0 +1,61 @@
+package scheduler.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import scheduler.Dot_reader;
+import scheduler.Graph;
+import scheduler.Reachability;
+
+/**
+ * Benchmarks parsing graphs and the predecessor queries on them (for random
+ * pairs of nodes).
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Thread)
+public class GraphBenchmark {
+	Reachability reach;
+	Random random;
+
+	@Setup(Level.Trial)
+	public void setUp(Inputs in) {
+		reach = in.sg.reachability();
+		random = new Random(1);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public Graph parse(Inputs in) {
+		return new Dot_reader(false).parse(in.graph);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean isPredecessorOf(Inputs in) {
+		return in.index[random.nextInt(in.index.length)].isPredecessorOf(in.index[random.nextInt(in.index.length)]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean reaches(Inputs in) {
+		return reach.reaches(random.nextInt(in.index.length), random.nextInt(in.index.length));
+	}
+}
@@ -0,0 +1,60 @@
+package scheduler.bench;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import scheduler.Dot_reader;
+import scheduler.Graph;
+import scheduler.Node;
+import scheduler.RC;
+
+/**
+ * The graph and resource constraints shared by all benchmarks. Both are
+ * parameters, so each benchmark is run for every combination (override them
+ * with e.g. -p graph=graphs/random400.dot).
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+@State(Scope.Benchmark)
+public class Inputs {
+	@Param({ "graphs/random60.dot", "graphs/random400.dot" })
+	public String graph;
+
+	@Param({ "resources/single", "resources/dual" })
+	public String resources;
+
+	public Graph sg;
+	public RC rc;
+	/**
+	 * The nodes by their variable index and vice versa.
+	 */
+	public Node[] index;
+	public HashMap<Node, Integer> vars;
+	/**
+	 * The length of the interval of each node - 1 (as used by SASDC).
+	 */
+	public int[] span;
+
+	@Setup(Level.Trial)
+	public void load() throws IOException {
+		sg = new Dot_reader(false).parse(graph);
+		rc = new RC();
+		rc.parse(resources);
+
+		index = new Node[sg.size()];
+		span = new int[sg.size()];
+		vars = new HashMap<Node, Integer>();
+		for (Node n : sg) {
+			index[vars.size()] = n;
+			span[vars.size()] = n.getRT().delay;
+			vars.put(n, vars.size());
+		}
+	}
+}
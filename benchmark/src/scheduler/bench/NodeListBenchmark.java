@@ -0,0 +1,65 @@
+package scheduler.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import scheduler.Node;
+import scheduler.sdcutil.SDCNodeList;
+
+/**
+ * Benchmarks the operations of SDCNodeList at random positions. Shoves are
+ * reverted in the same invocation, so the order stays the same.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class NodeListBenchmark {
+	SDCNodeList nodes;
+	Random random;
+
+	@Setup(Level.Trial)
+	public void setUp(Inputs in) {
+		nodes = new SDCNodeList(in.rc, in.sg);
+		random = new Random(1);
+	}
+
+	@Benchmark
+	public boolean shoveLeftRevert() {
+		boolean ok = nodes.shoveLeft(random.nextInt(nodes.length));
+		if (ok)
+			nodes.revert();
+		return ok;
+	}
+
+	@Benchmark
+	public boolean shoveRightRevert() {
+		boolean ok = nodes.shoveRight(random.nextInt(nodes.length));
+		if (ok)
+			nodes.revert();
+		return ok;
+	}
+
+	@Benchmark
+	public Node nextOfType() {
+		int i = random.nextInt(nodes.length);
+		return nodes.nextOfType(nodes.get(i).getRT(), i + 1);
+	}
+}
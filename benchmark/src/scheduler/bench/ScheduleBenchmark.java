@@ -0,0 +1,70 @@
+package scheduler.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import scheduler.CompactSchedule;
+import scheduler.Interval;
+import scheduler.Schedule;
+import scheduler.sdcutil.SDCEngine;
+import scheduler.sdcutil.SDCNodeList;
+
+/**
+ * Benchmarks building schedules and their cost function, using the start times
+ * of the initial node list order.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ScheduleBenchmark {
+	int[] start;
+	Schedule schedule;
+	CompactSchedule compact;
+
+	@Setup(Level.Trial)
+	public void setUp(Inputs in) {
+		start = SDCEngine.LONGEST_PATH.create(in.vars, null).solve(new SDCNodeList(in.rc, in.sg)).clone();
+		schedule = add(in);
+		compact = new CompactSchedule(in.index, in.vars, start, in.span);
+	}
+
+	@Benchmark
+	public Schedule add(Inputs in) {
+		Schedule s = new Schedule();
+		for (int i = 0; i < start.length; i++)
+			s.add(in.index[i], new Interval(start[i], start[i] + in.span[i]));
+		return s;
+	}
+
+	@Benchmark
+	public Schedule compact(Inputs in) {
+		return new CompactSchedule(in.index, in.vars, start, in.span);
+	}
+
+	@Benchmark
+	public Double cost() {
+		return schedule.cost();
+	}
+
+	@Benchmark
+	public Double compactCost() {
+		return compact.cost();
+	}
+}
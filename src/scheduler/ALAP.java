@@ -1,8 +1,12 @@
 package scheduler;
 
-import java.util.HashMap;
-import java.util.Map;
-
+/**
+ * Schedules each node as late as possible, i.e. right before its earliest
+ * successor (edges with weight 0). Without a maximum length, the schedule is
+ * shifted to start at 0. The start times are computed in one pass over a
+ * reversed topological order of Graph.compact(), O(V + E), without modifying
+ * the graph.
+ */
 public class ALAP extends Scheduler {
 	
 	/**
@@ -18,53 +22,28 @@ public class ALAP extends Scheduler {
 	}
 	
 	public Schedule schedule(final Graph sg) {
-		Map<Node, Interval> queue = new HashMap<Node, Interval>();
-		Map<Node, Interval> qq;
-		Map<Node, Interval> min_queue = new HashMap<Node, Interval>();
-		Schedule schedule = new Schedule();
-		Integer min = lmax;
-		Graph g = sg;
-
-		for (Node nd : g)
-			if (nd.leaf())
-				queue.put(nd, new Interval(lmax + 1 - nd.getDelay(), lmax));
-		if(queue.size() == 0)
+		CompactGraph g = sg.compact();
+		int n = g.size();
+		if (n == 0)
 			System.out.println("No leaf in Graph found. Empty or cyclic graph");
-		
-
-		while (queue.size() > 0) {
-			qq = new HashMap<Node, Interval>();
+		int[] order = g.order();
+		if (order == null)
+			throw new IllegalArgumentException("ALAP requires an acyclic graph.");
 
-			for (Node nd : queue.keySet()) {
-				Interval slot = queue.get(nd);
-				if (slot.lbound < min)
-					min = slot.lbound;
-
-				schedule.add(nd, slot);
-				for (Node l : nd.predecessors()) {
-					g.handle(l, nd);
-					Interval ii = min_queue.get(l);
-					if (ii == null || slot.lbound <= ii.ubound) {
-						ii = new Interval(slot.lbound-l.getDelay(), slot.lbound-1);
-						min_queue.put(l, ii);
-					}
-					if (!l.bottom())
-						continue;
-					if ((queue.get(l) == null)) {
-						if (qq.get(l) == null) {
-							qq.put(l, ii);
-						} else if (qq.get(l).ubound >= slot.lbound) {
-							qq.put(l, ii);
-						}
-					} else if (queue.get(l).ubound >= slot.lbound) {
-						qq.put(l, ii);
-					}
-				}
-			}
-			queue = qq;
+		// the leaves end at lmax, every other node right before its earliest successor
+		int[] start = new int[n], span = new int[n];
+		int min = lmax;
+		for (int i = n - 1; i >= 0; i--) {
+			int v = order[i], end = lmax + 1;
+			for (int e = g.firstSucc(v); e < g.endSucc(v); e++)
+				if (g.succWeight(e) == 0 && start[g.succ(e)] < end)
+					end = start[g.succ(e)];
+			span[v] = g.delay(v) - 1;
+			start[v] = end - g.delay(v);
+			if (start[v] < min)
+				min = start[v];
 		}
-		g.reset();
-	
+		Schedule schedule = new CompactSchedule(g.nodes(), g.ids(), start, span);
 		if (lmax == 0)
 			return schedule.shift(-(min));
 		return schedule;
@@ -1,58 +1,30 @@
 package scheduler;
 
-import java.util.HashMap;
-import java.util.Map;
-
+/**
+ * Schedules each node as soon as possible, i.e. at the end of its latest
+ * predecessor (edges with weight 0). The start times are computed in one pass
+ * over a topological order of Graph.compact(), O(V + E), without modifying the
+ * graph.
+ */
 public class ASAP extends Scheduler {
 	
 	public Schedule schedule(final Graph sg) {
-		Map<Node, Interval> queue = new HashMap<Node, Interval>();
-		Map<Node, Interval> qq;
-		Map<Node, Interval> minslot = new HashMap<Node, Interval>();
-		Schedule schedule = new Schedule();
-	
-		Graph g = sg;
-		for (Node nd : g) {
-			if (nd.root())
-				queue.put(nd, new Interval(0, nd.getDelay() - 1));
-		}
-		if(queue.size() == 0)
+		CompactGraph g = sg.compact();
+		int n = g.size();
+		if (n == 0)
 			System.out.println("No root in Graph found. Empty or cyclic graph");
+		int[] order = g.order();
+		if (order == null)
+			throw new IllegalArgumentException("ASAP requires an acyclic graph.");
 
-		while (queue.size() > 0) {
-			qq = new HashMap<Node, Interval>();
-
-			for (Node nd : queue.keySet()) {
-				Interval slot = queue.get(nd);
-				schedule.add(nd, slot);
-	
-				for (Node l : nd.successors()) {
-					g.handle(nd, l);
-	
-					Interval ii = minslot.get(l);
-					if (ii == null)
-						minslot.put(l, new Interval(slot.ubound + 1,
-									       slot.ubound + l.getDelay()));
-					else if (ii.lbound.compareTo(slot.ubound) <= 0)
-						minslot.put(l, new Interval(slot.ubound + 1,
-									       slot.ubound + l.getDelay()));
-
-					if (!l.top())
-						continue;
-					ii = minslot.get(l);
-					if ((queue.get(l) == null)) {
-						if (qq.get(l) == null)
-							qq.put(l, ii);
-						else if (qq.get(l).lbound <= slot.ubound)
-							qq.put(l, ii);
-					} else if (queue.get(l).lbound <= slot.ubound)
-						qq.put(l, ii);
-				}
-			}
-			queue = qq;
+		int[] start = new int[n], span = new int[n];
+		for (int v : order) {
+			int end = start[v] + g.delay(v);
+			span[v] = g.delay(v) - 1;
+			for (int e = g.firstSucc(v); e < g.endSucc(v); e++)
+				if (g.succWeight(e) == 0 && start[g.succ(e)] < end)
+					start[g.succ(e)] = end;
 		}
-		g.reset();
-	
-		return schedule;
+		return new CompactSchedule(g.nodes(), g.ids(), start, span);
 	}
 }
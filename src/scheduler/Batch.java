@@ -0,0 +1,181 @@
+package scheduler;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import scheduler.sdcutil.Cooling;
+import scheduler.sdcutil.Neighbourhood;
+import scheduler.sdcutil.SDCEngine;
+import scpsolver.lpsolver.SolverFactory;
+
+/**
+ * Schedules many graphs in one JVM on a pool of worker threads. <br>
+ * <br>
+ * The graphs are either all dot (or binary graph) files of a directory
+ * (scheduled with the default resource constraints and quality) or listed in a
+ * manifest file with one graph per line:
+ *
+ * <pre>
+ * // comment
+ * dotfile [resource_constraints [quality]]
+ * </pre>
+ *
+ * Relative paths in a manifest are resolved against its directory. Each job
+ * has its own graph and SASDC instance, the resource constraints are parsed
+ * once per file and the results are collected by a shared {@link ResultSink}.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class Batch {
+	/**
+	 * A graph to schedule.
+	 */
+	private static class Job {
+		final String dot, rc;
+		final int quality;
+
+		Job(String dot, String rc, int quality) {
+			this.dot = dot;
+			this.rc = rc;
+			this.quality = quality;
+		}
+	}
+
+	private final List<Job> jobs = new ArrayList<>();
+	private final RC defaultRC;
+	private final Map<String, RC> rcs = new ConcurrentHashMap<>();
+
+	/**
+	 * Reads the jobs of a directory or manifest.
+	 *
+	 * @param source The directory or manifest file.
+	 * @param rc The resource constraints for graphs without their own (may be
+	 *        null for manifests which specify them for all graphs).
+	 * @param quality The quality for graphs without their own.
+	 */
+	public Batch(String source, RC rc, int quality) throws IOException {
+		this.defaultRC = rc;
+		File f = new File(source);
+		if (f.isDirectory()) {
+			File[] files = f.listFiles((dir, name) -> name.endsWith(".dot") || name.endsWith(GraphFile.EXTENSION));
+			Arrays.sort(files);
+			for (File dot : files)
+				jobs.add(new Job(dot.getPath(), null, quality));
+		} else
+			readManifest(f, quality);
+
+		// fail early instead of in the middle of a batch
+		for (Job j : jobs) {
+			if (!new File(j.dot).isFile())
+				throw new IOException("Graph not found: " + j.dot);
+			if (j.rc == null ? defaultRC == null : !new File(j.rc).isFile())
+				throw new IOException("No resource constraints for " + j.dot + (j.rc == null ? "" : ": " + j.rc));
+		}
+	}
+
+	private void readManifest(File manifest, int quality) throws IOException {
+		File base = manifest.getAbsoluteFile().getParentFile();
+		try (BufferedReader rdr = new BufferedReader(new FileReader(manifest))) {
+			String line;
+			int n = 0;
+			while ((line = rdr.readLine()) != null) {
+				n++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("//"))
+					continue;
+				String[] parts = line.split("\\s+");
+				try {
+					jobs.add(new Job(resolve(base, parts[0]), parts.length > 1 ? resolve(base, parts[1]) : null, parts.length > 2 ? Integer.parseInt(parts[2]) : quality));
+				} catch (NumberFormatException e) {
+					throw new IOException(String.format("%s:%s: Invalid quality \"%s\"", manifest, n, parts[2]));
+				}
+			}
+		}
+	}
+
+	private static String resolve(File base, String fn) {
+		File f = new File(fn);
+		return f.isAbsolute() ? fn : new File(base, fn).getPath();
+	}
+
+	/**
+	 * @return The number of graphs.
+	 */
+	public int size() {
+		return jobs.size();
+	}
+
+	/**
+	 * Schedules all graphs. The output of the schedulers is suppressed, only the
+	 * progress is printed.
+	 *
+	 * @param threads The number of worker threads.
+	 * @param engine The SDC engine of SASDC.
+	 * @param replicas The number of replicas of SASDC.
+	 * @param speculation The number of speculative candidates of SASDC.
+	 * @param moves The neighbourhood of SASDC.
+	 * @param cooling The cooling schedule of SASDC.
+	 * @param stall The number of steps without improvement after which SASDC
+	 *            ends or 0 to end by the cooling schedule.
+	 * @param draw Whether to draw the schedules into schedules/.
+	 * @param sink Receives the results.
+	 * @return The number of graphs which could not be scheduled.
+	 */
+	public int run(int threads, SDCEngine engine, int replicas, int speculation, Neighbourhood moves, Cooling cooling, int stall, boolean draw, ResultSink sink) {
+		// load the native library once, before the workers might race for it
+		if (engine == SDCEngine.LP || engine == SDCEngine.NATIVE_LP)
+			SolverFactory.newDefault();
+
+		final PrintStream out = System.out, quiet = new PrintStream(OutputStream.nullOutputStream());
+		final AtomicInteger done = new AtomicInteger(), failed = new AtomicInteger();
+		final long time = System.nanoTime();
+		out.printf("Scheduling %s graphs with %s threads ...%n", jobs.size(), threads);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			for (final Job j : jobs)
+				pool.execute(() -> {
+					String result = "done";
+					try {
+						RC rc = j.rc == null ? defaultRC : rcs.computeIfAbsent(j.rc, fn -> {
+							RC r = new RC();
+							try {
+								r.parse(fn);
+							} catch (IOException e) {
+								throw new UncheckedIOException(e);
+							}
+							return r;
+						});
+						Main.schedule(j.dot, rc, j.quality, engine, replicas, speculation, moves, cooling, stall, draw, sink, quiet);
+					} catch (Exception e) {
+						failed.incrementAndGet();
+						result = "FAILED: " + e;
+					}
+					synchronized (out) {
+						out.printf("[%s/%s] %s %s (%.1fsec)%n", done.incrementAndGet(), jobs.size(), j.dot, result, (System.nanoTime() - time) / 1e9);
+					}
+				});
+			pool.shutdown();
+			pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+		} catch (InterruptedException e) {
+			pool.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+		out.printf("Scheduled %s graphs in %.1fsec (%s failed).%n", done.get() - failed.get(), (System.nanoTime() - time) / 1e9, failed.get());
+		return failed.get();
+	}
+}
@@ -0,0 +1,400 @@
+package scheduler;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of a graph which is stored in primitive arrays. The
+ * nodes are identified by a dense index (0 &lt;= id &lt; number of nodes), the
+ * successors and predecessors of each node are stored in compressed sparse row
+ * format: the edges of node v are firstSucc(v) &lt;= e &lt; endSucc(v) with the
+ * successor succ(e) and the edge weight succWeight(e) (and likewise for the
+ * predecessors). Traversals therefore don't touch any maps or boxed weights.
+ * <p>
+ * The topological order along the edges with weight 0 as well as the depth
+ * and height of each node are computed once with the snapshot.
+ * <p>
+ * Graph and Node remain the API to build and modify graphs, Graph.compact()
+ * returns the snapshot of the current state.
+ */
+public class CompactGraph {
+
+	private static final RT[] TYPES = RT.values();
+
+	/**
+	 * The nodes by their index
+	 */
+	private final Node[] nodes;
+	/**
+	 * Maps each node to its index
+	 */
+	private final Map<Node, Integer> ids;
+	/**
+	 * Resource type (ordinal) of each node
+	 */
+	private final byte[] rt;
+	/**
+	 * Successors: offsets per node (n + 1), target nodes and edge weights
+	 */
+	private final int[] succOffset, succ, succWeight;
+	/**
+	 * Predecessors: offsets per node (n + 1), source nodes and edge weights
+	 */
+	private final int[] predOffset, pred, predWeight;
+	/**
+	 * Topological order along the edges with weight 0, depth and height of each
+	 * node (null if the graph is cyclic)
+	 */
+	private int[] order, depth, height;
+
+	/**
+	 * Creates a snapshot of a graph.
+	 * @param g - the graph
+	 */
+	public CompactGraph(Graph g) {
+		int n = g.size(), m = 0;
+		nodes = new Node[n];
+		ids = new HashMap<Node, Integer>(2 * n);
+		for (Node nd : g) {
+			ids.put(nd, m);
+			nodes[m++] = nd;
+		}
+		rt = types(nodes);
+
+		succOffset = new int[n + 1];
+		m = 0;
+		for (int v = 0; v < n; v++)
+			succOffset[v + 1] = m += nodes[v].successorWeights().size();
+		succ = new int[m];
+		succWeight = new int[m];
+		for (int v = 0, e = 0; v < n; v++)
+			for (Map.Entry<Node, Integer> s : nodes[v].successorWeights().entrySet()) {
+				succ[e] = ids.get(s.getKey());
+				succWeight[e++] = s.getValue();
+			}
+
+		predOffset = new int[n + 1];
+		pred = new int[m];
+		predWeight = new int[m];
+		transpose(n, succOffset, succ, succWeight, predOffset, pred, predWeight);
+		levels();
+	}
+
+	/**
+	 * Creates a snapshot from the successor arrays, the predecessors are derived
+	 * from them.
+	 * @param nodes - the nodes by their index
+	 * @param succOffset - the first edge of each node (n + 1 entries)
+	 * @param succ - the successor of each edge
+	 * @param succWeight - the weight of each edge
+	 */
+	CompactGraph(Node[] nodes, int[] succOffset, int[] succ, int[] succWeight) {
+		int n = nodes.length;
+		this.nodes = nodes;
+		ids = new HashMap<Node, Integer>(2 * n);
+		for (int v = 0; v < n; v++)
+			ids.put(nodes[v], v);
+		rt = types(nodes);
+		this.succOffset = succOffset;
+		this.succ = succ;
+		this.succWeight = succWeight;
+		predOffset = new int[n + 1];
+		pred = new int[succ.length];
+		predWeight = new int[succ.length];
+		transpose(n, succOffset, succ, succWeight, predOffset, pred, predWeight);
+		levels();
+	}
+
+	private static byte[] types(Node[] nodes) {
+		byte[] rt = new byte[nodes.length];
+		for (int v = 0; v < nodes.length; v++)
+			rt[v] = (byte) nodes[v].getRT().ordinal();
+		return rt;
+	}
+
+	/**
+	 * Builds the reverse edges (counting sort by target).
+	 */
+	private static void transpose(int n, int[] offset, int[] target, int[] weight, int[] rOffset, int[] rTarget, int[] rWeight) {
+		for (int e = 0; e < target.length; e++)
+			rOffset[target[e] + 1]++;
+		for (int v = 0; v < n; v++)
+			rOffset[v + 1] += rOffset[v];
+		int[] next = new int[n];
+		for (int v = 0; v < n; v++)
+			for (int e = offset[v]; e < offset[v + 1]; e++) {
+				int u = target[e], r = rOffset[u] + next[u]++;
+				rTarget[r] = v;
+				rWeight[r] = weight[e];
+			}
+	}
+
+	/**
+	 * @return the number of nodes
+	 */
+	public int size() {
+		return nodes.length;
+	}
+
+	/**
+	 * @return the number of edges
+	 */
+	public int edges() {
+		return succ.length;
+	}
+
+	/**
+	 * @param v - the index of a node
+	 * @return the node
+	 */
+	public Node node(int v) {
+		return nodes[v];
+	}
+
+	/**
+	 * Get the index of the given node
+	 * @param nd - the node of interest
+	 * @return its index, null if the node is unknown
+	 */
+	public Integer id(Node nd) {
+		return ids.get(nd);
+	}
+
+	/**
+	 * @return the nodes by their index (not copied, e.g. for CompactSchedule)
+	 */
+	Node[] nodes() {
+		return nodes;
+	}
+
+	/**
+	 * @return the map of each node to its index (not copied)
+	 */
+	Map<Node, Integer> ids() {
+		return ids;
+	}
+
+	/**
+	 * @param v - the index of a node
+	 * @return its resource type
+	 */
+	public RT rt(int v) {
+		return TYPES[rt[v]];
+	}
+
+	/**
+	 * @param v - the index of a node
+	 * @return the delay of its operation
+	 */
+	public int delay(int v) {
+		return TYPES[rt[v]].delay;
+	}
+
+	/**
+	 * @param v - the index of a node
+	 * @return the first outgoing edge of the node
+	 */
+	public int firstSucc(int v) {
+		return succOffset[v];
+	}
+
+	/**
+	 * @param v - the index of a node
+	 * @return the end (exclusive) of the outgoing edges of the node
+	 */
+	public int endSucc(int v) {
+		return succOffset[v + 1];
+	}
+
+	/**
+	 * @param e - an outgoing edge
+	 * @return the index of the successor
+	 */
+	public int succ(int e) {
+		return succ[e];
+	}
+
+	/**
+	 * @param e - an outgoing edge
+	 * @return the weight (iteration distance) of the edge
+	 */
+	public int succWeight(int e) {
+		return succWeight[e];
+	}
+
+	/**
+	 * @param v - the index of a node
+	 * @return the first incoming edge of the node
+	 */
+	public int firstPred(int v) {
+		return predOffset[v];
+	}
+
+	/**
+	 * @param v - the index of a node
+	 * @return the end (exclusive) of the incoming edges of the node
+	 */
+	public int endPred(int v) {
+		return predOffset[v + 1];
+	}
+
+	/**
+	 * @param e - an incoming edge
+	 * @return the index of the predecessor
+	 */
+	public int pred(int e) {
+		return pred[e];
+	}
+
+	/**
+	 * @param e - an incoming edge
+	 * @return the weight (iteration distance) of the edge
+	 */
+	public int predWeight(int e) {
+		return predWeight[e];
+	}
+
+	/**
+	 * Check if a node is a root node, i.e. it has no predecessors with 0 edge
+	 * weight (see Node.root()).
+	 * @param v - the index of a node
+	 * @return true iff the node is a root
+	 */
+	public boolean root(int v) {
+		for (int e = predOffset[v]; e < predOffset[v + 1]; e++)
+			if (predWeight[e] == 0)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Check if a node is a leaf node, i.e. it has no successors with 0 edge
+	 * weight (see Node.leaf()).
+	 * @param v - the index of a node
+	 * @return true iff the node is a leaf
+	 */
+	public boolean leaf(int v) {
+		for (int e = succOffset[v]; e < succOffset[v + 1]; e++)
+			if (succWeight[e] == 0)
+				return false;
+		return true;
+	}
+
+	/**
+	 * Sorts the nodes topologically along the edges with weight 0 (Kahn) and
+	 * computes the depth and height of each node in O(V + E).
+	 */
+	private void levels() {
+		int n = nodes.length, head = 0, tail = 0;
+		int[] in = new int[n], order = new int[n];
+		for (int e = 0; e < succ.length; e++)
+			if (succWeight[e] == 0)
+				in[succ[e]]++;
+		for (int v = 0; v < n; v++)
+			if (in[v] == 0)
+				order[tail++] = v;
+		while (head < tail) {
+			int v = order[head++];
+			for (int e = succOffset[v]; e < succOffset[v + 1]; e++)
+				if (succWeight[e] == 0 && --in[succ[e]] == 0)
+					order[tail++] = succ[e];
+		}
+		if (tail < n)
+			return;
+
+		int[] depth = new int[n], height = new int[n];
+		for (int i = 0; i < n; i++) {
+			int v = order[i];
+			for (int e = succOffset[v]; e < succOffset[v + 1]; e++)
+				if (succWeight[e] == 0 && depth[succ[e]] <= depth[v])
+					depth[succ[e]] = depth[v] + 1;
+		}
+		for (int i = n - 1; i >= 0; i--) {
+			int v = order[i];
+			for (int e = predOffset[v]; e < predOffset[v + 1]; e++)
+				if (predWeight[e] == 0 && height[pred[e]] <= height[v])
+					height[pred[e]] = height[v] + 1;
+		}
+		this.order = order;
+		this.depth = depth;
+		this.height = height;
+	}
+
+	/**
+	 * @return the indices of the nodes in topological order along the edges with
+	 *         weight 0 (shared, must not be modified), null if the graph is cyclic
+	 */
+	public int[] order() {
+		return order;
+	}
+
+	/**
+	 * @return true iff the graph has no cycle along the edges with weight 0
+	 */
+	public boolean acyclic() {
+		return order != null;
+	}
+
+	/**
+	 * Gets the depth of a node, i.e. the number of edges with weight 0 on the
+	 * longest path from a root to the node (0 is root). Requires an acyclic graph.
+	 * @param v - the index of a node
+	 * @return the depth of the node
+	 */
+	public int depth(int v) {
+		return depth[v];
+	}
+
+	/**
+	 * Gets the height of a node, i.e. the number of edges with weight 0 on the
+	 * longest path from the node to a leaf (0 is leaf). Requires an acyclic graph.
+	 * @param v - the index of a node
+	 * @return the height of the node
+	 */
+	public int height(int v) {
+		return height[v];
+	}
+
+	/**
+	 * Searches a cycle along the edges with weight 0 (iterative depth-first
+	 * search, O(V + E)).
+	 * @return the indices of the nodes on a cycle in the order of their edges
+	 *         (the last one precedes the first one), null if the graph is acyclic
+	 */
+	public int[] cycle() {
+		int n = nodes.length;
+		byte[] state = new byte[n]; // 0 = unvisited, 1 = on the stack, 2 = done
+		int[] stack = new int[n], next = new int[n];
+		for (int root = 0; root < n; root++) {
+			if (state[root] != 0)
+				continue;
+			int sp = 0;
+			stack[sp++] = root;
+			state[root] = 1;
+			next[root] = succOffset[root];
+			while (sp > 0) {
+				int v = stack[sp - 1], e = next[v];
+				while (e < succOffset[v + 1] && (succWeight[e] != 0 || state[succ[e]] == 2))
+					e++;
+				next[v] = e + 1;
+				if (e == succOffset[v + 1]) {
+					state[v] = 2;
+					sp--;
+					continue;
+				}
+				int s = succ[e];
+				if (state[s] == 1) { // back edge: the cycle is on the stack from s to v
+					int i = sp - 1;
+					while (stack[i] != s)
+						i--;
+					return Arrays.copyOfRange(stack, i, sp);
+				}
+				state[s] = 1;
+				next[s] = succOffset[s];
+				stack[sp++] = s;
+			}
+		}
+		return null;
+	}
+}
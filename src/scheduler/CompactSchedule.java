@@ -0,0 +1,344 @@
+package scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Formatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A schedule which is stored in primitive arrays. The nodes are identified by a
+ * dense index (0 &lt;= id &lt; number of nodes) and the usage of each resource
+ * type is calculated once, so creating and evaluating a schedule does not need
+ * any maps. The schedule can be used like any other {@link Schedule}. The first
+ * call to add() or remove() copies it into the maps of {@link Schedule}, which
+ * hold the schedule from then on (see compact()).
+ */
+public class CompactSchedule extends Schedule {
+
+	private static final RT[] TYPES = RT.values();
+
+	/**
+	 * The nodes by their index
+	 */
+	private final Node[] nodes;
+	/**
+	 * Maps each node to its index
+	 */
+	private final Map<Node, Integer> ids;
+	/**
+	 * Lower bound of the interval of each node
+	 */
+	private final int[] start;
+	/**
+	 * Length - 1 of the interval of each node (shared between schedules)
+	 */
+	private final int[] span;
+	/**
+	 * Number of nodes of each resource type per time step, starting at min()
+	 */
+	private final int[] usage;
+	/**
+	 * Maximum usage of each resource type (-1 if the type is not used)
+	 */
+	private final int[] peak;
+	private int min, max;
+	/**
+	 * Nodes per time step (starting at min()), created on demand
+	 */
+	private List<Set<Node>> slots;
+	/**
+	 * Whether the schedule has been copied into the maps of the super class
+	 */
+	private boolean materialized;
+
+	/**
+	 * Creates a schedule in which the node with index i is scheduled at the
+	 * interval [start[i] : start[i] + span[i]].
+	 * @param nodes - the nodes by their index
+	 * @param ids - maps each node to its index
+	 * @param start - the lower bounds (the array is copied)
+	 * @param span - the interval lengths - 1 (the array is not copied)
+	 */
+	public CompactSchedule(Node[] nodes, Map<Node, Integer> ids, int[] start, int[] span) {
+		super(false);
+		this.nodes = nodes;
+		this.ids = ids;
+		this.start = start.clone();
+		this.span = span;
+
+		min = Integer.MAX_VALUE;
+		max = Integer.MIN_VALUE;
+		for (int i = 0; i < nodes.length; i++) {
+			min = Math.min(min, start[i]);
+			max = Math.max(max, start[i] + span[i]);
+		}
+
+		int w = nodes.length == 0 ? 0 : max - min + 2;
+		usage = new int[TYPES.length * w];
+		peak = new int[TYPES.length];
+		Arrays.fill(peak, -1);
+		for (int i = 0; i < nodes.length; i++) {
+			int rt = nodes[i].getRT().ordinal();
+			usage[rt * w + start[i] - min]++;
+			usage[rt * w + start[i] + span[i] - min + 1]--;
+			peak[rt] = 0;
+		}
+		for (int rt = 0; rt < TYPES.length; rt++) {
+			if (peak[rt] == -1)
+				continue;
+			int u = 0;
+			for (int t = rt * w; t < (rt + 1) * w; t++) {
+				usage[t] = u += usage[t];
+				if (u > peak[rt])
+					peak[rt] = u;
+			}
+		}
+	}
+
+	/**
+	 * Copies the schedule into the maps of the super class, which are used by all
+	 * methods afterwards.
+	 */
+	private void materialize() {
+		if (materialized)
+			return;
+		allocate();
+		materialized = true;
+		slots = null;
+		for (int i = 0; i < nodes.length; i++)
+			super.add(nodes[i], new Interval(start[i], start[i] + span[i]));
+	}
+
+	/**
+	 * @return false, if the schedule has been modified by add() or remove(), so
+	 *         the methods which are specific to compact schedules cannot be used
+	 *         anymore
+	 */
+	public boolean compact() {
+		return !materialized;
+	}
+
+	private void checkCompact() {
+		if (materialized)
+			throw new IllegalStateException("The schedule has been modified and is not compact anymore.");
+	}
+
+	@Override
+	public void add(Node nd, Interval i) {
+		materialize();
+		super.add(nd, i);
+	}
+
+	@Override
+	public void add(Node nd, Interval i, String resource) {
+		materialize();
+		super.add(nd, i, resource);
+	}
+
+	@Override
+	public void remove(Node nd) {
+		materialize();
+		super.remove(nd);
+	}
+
+	@Override
+	public Double cost() {
+		if (materialized)
+			return super.cost();
+		double c = 0.0;
+		for (int rt = 0; rt < TYPES.length; rt++)
+			if (peak[rt] > 0)
+				c += TYPES[rt].weight * peak[rt];
+		return c;
+	}
+
+	@Override
+	public Map<RT, Double> costPerResource() {
+		if (materialized)
+			return super.costPerResource();
+		Map<RT, Double> cm = new TreeMap<RT, Double>();
+		for (int rt = 0; rt < TYPES.length; rt++) {
+			double w = TYPES[rt].weight * peak[rt];
+			if (w > 0)
+				cm.put(TYPES[rt], w);
+		}
+		return cm;
+	}
+
+	/**
+	 * Gets the maximum number of nodes of the given type scheduled at the same time step.
+	 * @param rt - the resource type
+	 * @return the maximum usage
+	 */
+	public int peak(RT rt) {
+		checkCompact();
+		return Math.max(peak[rt.ordinal()], 0);
+	}
+
+	/**
+	 * Gets the nodes of the given type which are scheduled at the given time step.
+	 * @param rt - the resource type
+	 * @param slot - the time step
+	 * @return the nodes (in the order of their index)
+	 */
+	public List<Node> nodes(RT rt, int slot) {
+		checkCompact();
+		List<Node> l = new ArrayList<Node>();
+		for (int i = 0; i < nodes.length; i++)
+			if (start[i] <= slot && slot <= start[i] + span[i] && nodes[i].getRT() == rt)
+				l.add(nodes[i]);
+		return l;
+	}
+
+	/**
+	 * Gets the first time step at which the usage of the given type reaches its peak.
+	 * @param rt - the resource type
+	 * @return the time step, min() - 1 if the type is not used
+	 */
+	public int peakStep(RT rt) {
+		checkCompact();
+		int r = rt.ordinal(), w = max - min + 2;
+		if (peak[r] <= 0)
+			return min - 1;
+		int t = 0;
+		while (usage[r * w + t] < peak[r])
+			t++;
+		return min + t;
+	}
+
+	@Override
+	public Schedule shift(Integer shift) {
+		if (materialized)
+			return super.shift(shift);
+		for (int i = 0; i < start.length; i++)
+			start[i] += shift;
+		min += shift;
+		max += shift;
+		return this;
+	}
+
+	@Override
+	public Interval slot(Node nd) {
+		if (materialized)
+			return super.slot(nd);
+		Integer i = ids.get(nd);
+		if (i == null)
+			return null;
+		return new Interval(start[i], start[i] + span[i]);
+	}
+
+	/**
+	 * Get the lower bound of the slot of the node with the given index
+	 * @param id - the index of the node
+	 * @return the first time step of the node
+	 */
+	public int start(int id) {
+		checkCompact();
+		return start[id];
+	}
+
+	@Override
+	public Set<Node> nodes(int slot) {
+		if (materialized)
+			return super.nodes(slot);
+		if (slot < min || slot > max)
+			return null;
+		if (slots == null) {
+			slots = new ArrayList<Set<Node>>(Collections.nCopies(max - min + 1, (Set<Node>) null));
+			for (int i = 0; i < nodes.length; i++)
+				for (int t = start[i]; t <= start[i] + span[i]; t++) {
+					if (slots.get(t - min) == null)
+						slots.set(t - min, new HashSet<Node>());
+					slots.get(t - min).add(nodes[i]);
+				}
+		}
+		return slots.get(slot - min);
+	}
+
+	@Override
+	public Set<Node> nodes() {
+		if (materialized)
+			return super.nodes();
+		return Collections.unmodifiableSet(ids.keySet());
+	}
+
+	@Override
+	public Schedule clone() {
+		if (materialized)
+			return super.clone();
+		return new CompactSchedule(nodes, ids, start, span);
+	}
+
+	@Override
+	public Integer length() {
+		if (materialized)
+			return super.length();
+		return 1 + max - min;
+	}
+
+	@Override
+	public int min() {
+		if (materialized)
+			return super.min();
+		return min;
+	}
+
+	@Override
+	public int max() {
+		if (materialized)
+			return super.max();
+		return max;
+	}
+
+	@Override
+	public Node validate() {
+		if (materialized)
+			return super.validate();
+		for (int i = 0; i < nodes.length; i++)
+			for (Node sn : nodes[i].successors()) {
+				Integer j = ids.get(sn);
+				if (j != null && start[i] + span[i] >= start[j])
+					return nodes[i];
+			}
+		return null;
+	}
+
+	@Override
+	public Integer size() {
+		if (materialized)
+			return super.size();
+		return nodes.length;
+	}
+
+	@Override
+	public String diagnose() {
+		if (materialized)
+			return super.diagnose();
+		if (nodes.length <= 0)
+			return "%n";
+
+		Formatter f = new Formatter();
+		f.format("Found schedule of length %d%n%n", length());
+		for (int t = min; t <= max; t++)
+			for (int i = 0; i < nodes.length; i++)
+				if (start[i] == t)
+					f.format("%s : %s%n", nodes[i], slot(nodes[i]));
+		f.format("%nRegistered resources%n");
+		int w = max - min + 2;
+		for (int rt = 0; rt < TYPES.length; rt++) {
+			if (peak[rt] == -1)
+				continue;
+			for (int t = min; t <= max; t++)
+				f.format(" %s %s %s %n", TYPES[rt], t, TYPES[rt].weight * usage[rt * w + t - min]);
+		}
+
+		String str = f.toString();
+		f.close();
+		return str;
+	}
+}
@@ -1,103 +1,423 @@
 package scheduler;
 
-import java.io.FileReader;
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 
 /**
  * Reads DOT-ish files. (see graphviz)
  * <p>
- * The reader works somewhat crude. It reads the file line-wise
- * expecting at most one expression per line. It distinguishes between two
- * types of expressions:
+ * The file is memory-mapped and split into tokens by a hand-written lexer, so
+ * statements may be spread over several lines or share one line. The reader
+ * distinguishes between the following statements (the semicolon is optional):
  * 1. NODE [.*];
- * 2. NODE1 -> NODE2;
+ * 2. NODE1 -> NODE2 [-> NODE3 ...];
+ * 3. NODE1 -> NODE2 [.*];
  * Where NODE, NODE1 and NODE2 are given by the following regular expression:
- * [a-zA-Z_0-9][a-zA-Z_0-9]*
- * Number 1 is a definition expression and adds a node to the graph.
+ * [a-zA-Z_0-9][a-zA-Z_0-9]* (or a quoted string).
+ * Number 1 is a definition expression and adds a node to the graph, whose
+ * resource type is taken from the attribute list (see RT.getRT()).
  * Number 2 represents a directed link between two nodes. Nodes not previously
  * found in the graph are added when found in a link expression. (As they are
  * in DOT)
+ * Number 3 is a link with an iteration distance, given by the first quoted
+ * number of the attribute list (e.g. [label="1"]). These back edges are only
+ * read with readBackEdges, links with other attributes are treated like
+ * number 2.
+ * <p>
+ * The graph header (digraph G {), graph attributes (a = b), default attributes
+ * (node [...]) as well as // and /* comments are skipped.
  * <p>
  * Graphs must not be circular!
  * <p>
  * See parse().
  */
 public class Dot_reader {
-//	private BufferedReader file_reader;
+	/**
+	 * A syntax error in a DOT file.
+	 */
+	public static class ParseException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		/**
+		 * The line of the error (1-based, 0 if not related to a line)
+		 */
+		public final int line;
+
+		public ParseException(String fn, int line, String msg) {
+			super(line > 0 ? String.format("%s:%s: %s", fn, line, msg) : String.format("%s: %s", fn, msg));
+			this.line = line;
+		}
+	}
+
+	private static final int EOF = -1, ID = 0, ARROW = 1, ATTRIBUTES = 2, SEMICOLON = 3, OPEN = 4, CLOSE = 5, EQUALS = 6;
+
 	private Graph graph;
 	private boolean readBackEdges = false;
-	
+
+	// lexer state
+	private String fn;
+	private ByteBuffer in;
+	private int pos, line, tokenLine;
+	private int token, start, end, hash; // current token: type, range in the input and hash of IDs
+
+	// interned node IDs: open addressing table of id + 1, the first occurrence of
+	// each id in the input and the nodes by id
+	private int[] table;
+	private int[] idStart, idEnd;
+	private ArrayList<Node> nodes;
+	private HashMap<String, RT> types; // resource types by attribute list
+
 	public Dot_reader(boolean readBackEdges) {
 		this.readBackEdges = readBackEdges;
 		graph = new Graph();
 	}
-	
-	private void lex(BufferedReader input) {
-		String line;
-		Pattern pat_def = Pattern.compile("(\\w\\w*) (\\[.*\\]);.*");
-		Pattern pat_use = Pattern.compile("(\\w\\w*) -> (\\w\\w*);.*");
-		Pattern pat_itdep = Pattern.compile("(\\w\\w*) -> (\\w\\w*).*(\\[.*\\]);.*");
-		Matcher m;
-		try {
-			line = input.readLine();
-			while (line != null) {
-			
-				/* new node */
-				m = pat_def.matcher(line);
-				if (m.matches()){
-					if (m.group(1).compareTo("node") != 0){
-						Node n = new Node(m.group(1));
-						graph.add(n);
-						graph.get(n).setRT(RT.getRT(m.group(2)));
-					}
-				}
-				/* link */
-				m = pat_use.matcher(line);
-				if (m.matches()){
-					if (graph.link(new Node(m.group(1)), new Node(m.group(2)),0) == null) {
-						System.err.printf("ERROR: Found circular graph%n");
-						System.exit(-1);
-					}
+
+	/**
+	 * Parses a file.
+	 *
+	 * @param fn - the file name
+	 * @return the graph
+	 * @throws ParseException if the file cannot be read or contains errors
+	 */
+	public Graph parse(String fn) {
+		graph = new Graph();
+		this.fn = fn;
+		try (FileChannel ch = FileChannel.open(Paths.get(fn), StandardOpenOption.READ)) {
+			if (ch.size() > Integer.MAX_VALUE)
+				throw new ParseException(fn, 0, "File too large");
+			MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+			return parse(buf);
+		} catch (NoSuchFileException e) {
+			throw new ParseException(fn, 0, "File not found");
+		} catch (IOException e) {
+			throw new ParseException(fn, 0, "Could not read from input: " + e.getMessage());
+		} finally {
+			in = null;
+			table = idStart = idEnd = null;
+			nodes = null;
+			types = null;
+		}
+	}
+
+	private Graph parse(ByteBuffer buf) {
+		in = buf;
+		pos = 0;
+		line = 1;
+		table = new int[1024];
+		idStart = new int[256];
+		idEnd = new int[256];
+		nodes = new ArrayList<>();
+		types = new HashMap<>();
+
+		next();
+		while (token != EOF) {
+			switch (token) {
+			case SEMICOLON:
+			case CLOSE:
+				next();
+				break;
+			case ID:
+				statement();
+				break;
+			default:
+				throw error("Unexpected " + describe());
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * Parses a statement starting with an ID.
+	 */
+	private void statement() {
+		if (keyword("digraph") || keyword("graph") || keyword("strict") || keyword("subgraph")) {
+			while (token == ID)
+				next();
+			expect(OPEN);
+			return;
+		}
+		if (keyword("node") || keyword("edge")) { // default attributes
+			next();
+			if (token == ATTRIBUTES)
+				next();
+			return;
+		}
+
+		int from = start, to = end, h = hash, stmtLine = tokenLine;
+		next();
+		if (token == EQUALS) { // graph attribute
+			next();
+			expect(ID);
+			return;
+		}
+		int first = intern(from, to, h);
+		if (token != ARROW) { // node definition
+			if (token == ATTRIBUTES) {
+				String attributes = text(start, end);
+				RT rt = types.get(attributes);
+				if (rt == null)
+					types.put(attributes, rt = RT.getRT(attributes));
+				nodes.get(first).setRT(rt);
+				next();
+			}
+			return;
+		}
+
+		// link(s)
+		int[] chain = new int[] { first, 0 };
+		int n = 1;
+		while (token == ARROW) {
+			next();
+			if (token != ID)
+				throw error("Expected a node after ->, found " + describe());
+			if (n == chain.length)
+				chain = Arrays.copyOf(chain, 2 * n);
+			chain[n++] = intern(start, end, hash);
+			next();
+		}
+		int it = 0;
+		if (token == ATTRIBUTES) {
+			it = iteration(start, end);
+			next();
+			if (it != 0 && !readBackEdges)
+				return;
+		}
+		for (int i = 1; i < n; i++)
+			if (graph.link(nodes.get(chain[i - 1]), nodes.get(chain[i]), it) == null)
+				throw new ParseException(fn, stmtLine, "Found circular graph");
+	}
+
+	/**
+	 * Gets the iteration distance of a link, i.e. the first quoted number of its
+	 * attribute list.
+	 *
+	 * @return the distance or 0, if the attributes don't contain a quoted number
+	 */
+	private int iteration(int from, int to) {
+		int q = -1;
+		for (int i = from; i < to; i++)
+			if (in.get(i) == '"') {
+				if (q == -1) {
+					q = i + 1;
+					continue;
 				}
-				
-				if(readBackEdges){
-					m = pat_itdep.matcher(line);
-					if (m.matches()){
-						int it = Integer.parseInt(m.group(3).split("\"")[1]);
-						if (graph.link(new Node(m.group(1)), new Node(m.group(2)),it) == null) {
-							System.err.printf("ERROR: Found circular graph%n");
-							System.exit(-1);
-						}
-					}
+				try {
+					return Integer.parseInt(text(q, i).trim());
+				} catch (NumberFormatException e) {
+					return 0;
 				}
-				line = input.readLine();
 			}
-		} catch (Throwable e) {
-			System.err.printf("FATAL: Could not read from input%n");
-			e.printStackTrace(System.err);
-			System.exit(-1);
+		return 0;
+	}
+
+	/**
+	 * Looks up an ID and adds a node to the graph, if it hasn't been found
+	 * before.
+	 *
+	 * @return the dense id of the node
+	 */
+	private int intern(int from, int to, int hash) {
+		int mask = table.length - 1, len = to - from;
+		for (int h = hash & mask;; h = (h + 1) & mask) {
+			int id = table[h] - 1;
+			if (id == -1) {
+				id = add(from, to);
+				table[h] = id + 1;
+				if (2 * nodes.size() > table.length)
+					rehash();
+				return id;
+			}
+			if (idEnd[id] - idStart[id] == len && equal(idStart[id], from, len))
+				return id;
+		}
+	}
+
+	private int add(int from, int to) {
+		int id = nodes.size();
+		if (id == idStart.length) {
+			idStart = Arrays.copyOf(idStart, 2 * id);
+			idEnd = Arrays.copyOf(idEnd, 2 * id);
+		}
+		idStart[id] = from;
+		idEnd[id] = to;
+		nodes.add(graph.add(new Node(text(from, to))));
+		return id;
+	}
+
+	private void rehash() {
+		int[] old = table;
+		table = new int[2 * old.length];
+		int mask = table.length - 1;
+		for (int e : old)
+			if (e != 0) {
+				int h = hash(idStart[e - 1], idEnd[e - 1]) & mask;
+				while (table[h] != 0)
+					h = (h + 1) & mask;
+				table[h] = e;
+			}
+	}
+
+	private int hash(int from, int to) {
+		int h = 0;
+		for (int i = from; i < to; i++)
+			h = 31 * h + in.get(i);
+		return h ^ (h >>> 16);
+	}
+
+	private boolean equal(int a, int b, int len) {
+		for (int i = 0; i < len; i++)
+			if (in.get(a + i) != in.get(b + i))
+				return false;
+		return true;
+	}
+
+	private String text(int from, int to) {
+		byte[] b = new byte[to - from];
+		for (int i = 0; i < b.length; i++)
+			b[i] = in.get(from + i);
+		return new String(b, StandardCharsets.UTF_8);
+	}
+
+	private boolean keyword(String k) {
+		if (token != ID || end - start != k.length())
+			return false;
+		for (int i = 0; i < k.length(); i++)
+			if (in.get(start + i) != k.charAt(i))
+				return false;
+		return true;
+	}
+
+	private void expect(int type) {
+		if (token != type)
+			throw error("Unexpected " + describe());
+		next();
+	}
+
+	private String describe() {
+		switch (token) {
+		case EOF:
+			return "end of file";
+		case ID:
+			return "\"" + text(start, end) + "\"";
+		case ATTRIBUTES:
+			return "attribute list";
+		default:
+			return "\"" + text(start, end) + "\"";
 		}
 	}
-	
+
+	private ParseException error(String msg) {
+		return new ParseException(fn, tokenLine, msg);
+	}
+
+	private static boolean isIdChar(int c) {
+		return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
+	}
+
 	/**
-	 * Parses the open stream.
+	 * Reads the next token.
 	 */
-	public Graph parse(String fn) {
-		BufferedReader file_reader;
-		
-		graph = new Graph();
-		
-		try {
-			file_reader = new BufferedReader(new FileReader(fn));
-			lex(file_reader);
-		} catch (FileNotFoundException e) {
-			System.err.printf("FATAL: File not found: %s%n", fn);
-			System.exit(-1);
+	private void next() {
+		int limit = in.limit();
+		// skip white space and comments
+		while (pos < limit) {
+			int c = in.get(pos);
+			if (c == '\n') {
+				line++;
+				pos++;
+			} else if (c == ' ' || c == '\t' || c == '\r')
+				pos++;
+			else if (c == '/' && pos + 1 < limit && in.get(pos + 1) == '/') {
+				while (pos < limit && in.get(pos) != '\n')
+					pos++;
+			} else if (c == '/' && pos + 1 < limit && in.get(pos + 1) == '*') {
+				int l = line;
+				pos += 2;
+				while (pos + 1 < limit && !(in.get(pos) == '*' && in.get(pos + 1) == '/')) {
+					if (in.get(pos) == '\n')
+						line++;
+					pos++;
+				}
+				if (pos + 1 >= limit)
+					throw new ParseException(fn, l, "Unterminated comment");
+				pos += 2;
+			} else
+				break;
+		}
+
+		tokenLine = line;
+		start = pos;
+		if (pos >= limit) {
+			token = EOF;
+			return;
+		}
+		int c = in.get(pos);
+		if (isIdChar(c)) {
+			int h = 0;
+			while (pos < limit && isIdChar(c = in.get(pos))) {
+				h = 31 * h + c;
+				pos++;
+			}
+			end = pos;
+			hash = h ^ (h >>> 16);
+			token = ID;
+		} else if (c == '"') { // quoted ID
+			int h = 0;
+			start = ++pos;
+			while (pos < limit && (c = in.get(pos)) != '"') {
+				if (c == '\n')
+					line++;
+				h = 31 * h + c;
+				pos++;
+			}
+			if (pos >= limit)
+				throw new ParseException(fn, tokenLine, "Unterminated string");
+			end = pos++;
+			hash = h ^ (h >>> 16);
+			token = ID;
+		} else if (c == '-' && pos + 1 < limit && in.get(pos + 1) == '>') {
+			pos += 2;
+			end = pos;
+			token = ARROW;
+		} else if (c == '[') { // attribute list as a whole
+			boolean quoted = false;
+			while (pos < limit && ((c = in.get(pos)) != ']' || quoted)) {
+				if (c == '"')
+					quoted = !quoted;
+				else if (c == '\n')
+					line++;
+				pos++;
+			}
+			if (pos >= limit)
+				throw new ParseException(fn, tokenLine, "Unterminated attribute list");
+			end = ++pos;
+			token = ATTRIBUTES;
+		} else {
+			end = ++pos;
+			switch (c) {
+			case ';':
+				token = SEMICOLON;
+				break;
+			case '{':
+				token = OPEN;
+				break;
+			case '}':
+				token = CLOSE;
+				break;
+			case '=':
+				token = EQUALS;
+				break;
+			default:
+				throw new ParseException(fn, tokenLine, String.format("Unexpected character '%c'", (char) c));
+			}
 		}
-		
-		return graph;
 	}
 }
@@ -1,6 +1,10 @@
 package scheduler;
 
+import java.io.PrintStream;
+
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.HashMap;
 import java.util.Set;
 import java.util.HashSet;
@@ -8,6 +12,14 @@ import java.util.Formatter;
 
 public class Graph implements Iterable<Node> {
 	private HashMap<Node, Node> nodes;
+	/**
+	 * Cached reachability index, null if not built or outdated
+	 */
+	private Reachability reachability;
+	/**
+	 * Cached array representation, null if not built or outdated
+	 */
+	private CompactGraph compact;
 		
 	public Graph() {
 		nodes = new HashMap<Node, Node>();
@@ -16,6 +28,7 @@ public class Graph implements Iterable<Node> {
 	public Node add(final Node nd) {
 		if (!nodes.containsKey(nd)) {
 			nodes.put(nd, nd);
+			changed();
 			return nd;
 		}
 		return nodes.get(nd);
@@ -30,6 +43,7 @@ public class Graph implements Iterable<Node> {
 	public Node link(Node pred, Node succ, int it) {
 		pred = add(pred);
 		succ = add(succ);
+		changed();
 		return succ.prepend(pred.append(succ, it), it);
 	}
 	
@@ -46,6 +60,7 @@ public class Graph implements Iterable<Node> {
 	public Node rlink(Node pred, Node succ, int it) {
 		pred = add(pred);
 		succ = add(succ);
+		changed();
 		return pred.append(succ.prepend(pred, it), it);
 	}
 		
@@ -60,6 +75,44 @@ public class Graph implements Iterable<Node> {
 	public void unlink(Node a, Node b) {
 		a.remove(b);
 		b.remove(a);
+		changed();
+	}
+
+	private void changed() {
+		reachability = null;
+		compact = null;
+	}
+
+	/**
+	 * Gets the array representation of this graph. It is built on the first call
+	 * and reused until the graph is changed via add(), link(), rlink() or
+	 * unlink().
+	 * @return the compact snapshot of this graph
+	 */
+	public synchronized CompactGraph compact() {
+		if (compact == null)
+			compact = new CompactGraph(this);
+		return compact;
+	}
+
+	/**
+	 * Sets the array representation, if it is already known (e.g. when loading
+	 * a binary graph file).
+	 */
+	synchronized void setCompact(CompactGraph compact) {
+		this.compact = compact;
+	}
+
+	/**
+	 * Gets an index which answers whether a node is a (long-distance) predecessor
+	 * of another node. The index is built on the first call and reused until the
+	 * graph is changed via add(), link(), rlink() or unlink().
+	 * @return the reachability index of this graph
+	 */
+	public synchronized Reachability reachability() {
+		if (reachability == null)
+			reachability = new Reachability(this);
+		return reachability;
 	}
 	
 	public void handle(Node a, Node b) {
@@ -120,18 +173,67 @@ public class Graph implements Iterable<Node> {
 	}
 
 	public Node validate() {
-		System.out.printf("Validating graph%n");
-		Integer s;
-		for (Node nd: nodes.keySet()) {
-			if (nd.root()) {
-				s = dijkstra(nd);
-				if (s.compareTo(Integer.MAX_VALUE) != 0)
-					return nd;
+		return validate(false);
+	}
+
+	/**
+	 * Checks the graph for cycles along edges with weight 0 in O(V + E). Strict
+	 * validation also rejects dangling nodes (without any edge, unless the graph
+	 * has only one node) and nodes of unknown resource type (RT.OTHER). The
+	 * problem is printed.
+	 * @param strict - whether to check for dangling and untyped nodes
+	 * @return null iff the graph is valid, a node on the cycle or the offending
+	 * node otherwise
+	 */
+	public Node validate(boolean strict) {
+		return validate(strict, System.out);
+	}
+
+	/**
+	 * Like {@link #validate(boolean)}, but prints to the given stream.
+	 */
+	public Node validate(boolean strict, PrintStream out) {
+		out.printf("Validating graph%n");
+		List<Node> cycle = cycle();
+		if (cycle != null) {
+			StringBuilder s = new StringBuilder();
+			for (Node nd : cycle)
+				s.append(nd).append(" -> ");
+			out.printf("Found cycle: %s%s%n", s, cycle.get(0));
+			return cycle.get(0);
+		}
+		if (!strict)
+			return null;
+		CompactGraph c = compact();
+		for (int v = 0; v < c.size(); v++) {
+			if (c.size() > 1 && c.firstSucc(v) == c.endSucc(v) && c.firstPred(v) == c.endPred(v)) {
+				out.printf("Found dangling node %s%n", c.node(v));
+				return c.node(v);
+			}
+			if (c.rt(v) == RT.OTHER) {
+				out.printf("Found node %s of unknown type%n", c.node(v));
+				return c.node(v);
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * Searches a cycle along the edges with weight 0 in O(V + E).
+	 * @return the nodes on a cycle in the order of their edges (the last one
+	 * precedes the first one), null if the graph is acyclic
+	 */
+	public List<Node> cycle() {
+		CompactGraph c = compact();
+		int[] cycle = c.cycle();
+		if (cycle == null)
+			return null;
+		List<Node> l = new ArrayList<Node>(cycle.length);
+		for (int v : cycle)
+			l.add(c.node(v));
+		return l;
+	}
+
 	/**
 	 * Simple diagnostic function. Invokes diagnose() for each registered
 	 * node in turn.
@@ -0,0 +1,253 @@
+package scheduler;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads and writes graphs in a compact binary format, which is loaded by
+ * memory-mapping the file instead of lexing DOT text. <br>
+ * <br>
+ * Layout (big-endian, n nodes, m edges):
+ *
+ * <pre>
+ * int magic ("SDCG"), int version, int n, int m, int flags
+ * byte[n] resource types (ordinals of RT), padded to a multiple of 4
+ * int[n + 1] offsets of the node ids, byte[] UTF-8 ids, padded
+ * int[n + 1] successor offsets, int[m] successors, int[m] edge weights
+ * int[n + 1] predecessor offsets, int[m] predecessors, int[m] edge weights
+ * int[n] topological order, int[n] depths (only with flag ORDER)
+ * </pre>
+ *
+ * The topological order and depths along the edges with weight 0 (see
+ * CompactGraph) are stored if the graph is acyclic. The depths are preset on
+ * the nodes on load (see Node.getDepth()).
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class GraphFile {
+	private static final int MAGIC = 0x53444347, VERSION = 2;
+	private static final int ORDER = 1;
+
+	/**
+	 * The file extension of binary graphs.
+	 */
+	public static final String EXTENSION = ".gbin";
+
+	private final Graph graph;
+	private final Node[] nodes;
+	private final Node[] order;
+
+	private GraphFile(Graph graph, Node[] nodes, Node[] order) {
+		this.graph = graph;
+		this.nodes = nodes;
+		this.order = order;
+	}
+
+	/**
+	 * @return The graph.
+	 */
+	public Graph graph() {
+		return graph;
+	}
+
+	/**
+	 * @return The nodes in the order of the file.
+	 */
+	public List<Node> nodes() {
+		return Arrays.asList(nodes);
+	}
+
+	/**
+	 * @return The nodes in topological order or null, if the file contains none.
+	 */
+	public List<Node> order() {
+		return order == null ? null : Arrays.asList(order);
+	}
+
+	/**
+	 * Reads a graph, either a binary one (by its extension) or a DOT file.
+	 *
+	 * @param fn The file name.
+	 * @param readBackEdges Whether to read back edges from DOT files (binary
+	 *        files always contain them).
+	 * @return The graph.
+	 */
+	public static Graph load(String fn, boolean readBackEdges) throws IOException {
+		if (fn.endsWith(EXTENSION))
+			return read(fn).graph();
+		return new Dot_reader(readBackEdges).parse(fn);
+	}
+
+	/**
+	 * Reads a binary graph.
+	 *
+	 * @param fn The file name.
+	 * @return The graph, its nodes and topological order.
+	 */
+	public static GraphFile read(String fn) throws IOException {
+		try (FileChannel ch = FileChannel.open(Paths.get(fn), StandardOpenOption.READ)) {
+			if (ch.size() > Integer.MAX_VALUE)
+				throw new IOException(fn + ": File too large");
+			return read(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException | IllegalArgumentException e) {
+			throw new IOException(fn + ": Corrupt graph file", e);
+		}
+	}
+
+	private static GraphFile read(ByteBuffer in) throws IOException {
+		if (in.getInt() != MAGIC)
+			throw new IOException("Not a graph file");
+		if (in.getInt() != VERSION)
+			throw new IOException("Unsupported graph file version");
+		int n = in.getInt(), m = in.getInt(), flags = in.getInt();
+		RT[] types = RT.values();
+
+		RT[] rt = new RT[n];
+		for (int i = 0; i < n; i++)
+			rt[i] = types[in.get()];
+		align(in);
+
+		int[] offsets = ints(in, n + 1);
+		byte[] ids = new byte[offsets[n]];
+		in.get(ids);
+		align(in);
+		Graph g = new Graph();
+		Node[] nodes = new Node[n];
+		for (int i = 0; i < n; i++)
+			nodes[i] = g.add(new Node(new String(ids, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8), rt[i]));
+
+		// the predecessors are implied by the successors
+		int[] succ = ints(in, n + 1), target = ints(in, m), weight = ints(in, m);
+		in.position(in.position() + 4 * (n + 1 + 2 * m));
+		for (int i = 0; i < n; i++)
+			for (int e = succ[i]; e < succ[i + 1]; e++)
+				g.link(nodes[i], nodes[target[e]], weight[e]);
+		g.setCompact(new CompactGraph(nodes, succ, target, weight));
+
+		Node[] order = null;
+		if ((flags & ORDER) != 0) {
+			order = new Node[n];
+			for (int i = 0; i < n; i++)
+				order[i] = nodes[in.getInt()];
+			for (int i = 0; i < n; i++)
+				nodes[i].setDepth(in.getInt());
+		}
+		return new GraphFile(g, nodes, order);
+	}
+
+	private static int[] ints(ByteBuffer in, int n) {
+		int[] a = new int[n];
+		in.asIntBuffer().get(a);
+		in.position(in.position() + 4 * n);
+		return a;
+	}
+
+	private static void align(ByteBuffer in) {
+		in.position((in.position() + 3) & ~3);
+	}
+
+	/**
+	 * Writes a graph in the binary format.
+	 *
+	 * @param g The graph.
+	 * @param fn The file name.
+	 * @return The number of edges.
+	 */
+	public static int write(Graph g, String fn) throws IOException {
+		CompactGraph c = g.compact();
+		int n = c.size(), m = c.edges();
+		int[] order = c.order();
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fn)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(n);
+			out.writeInt(m);
+			out.writeInt(order == null ? 0 : ORDER);
+
+			for (int v = 0; v < n; v++)
+				out.writeByte(c.rt(v).ordinal());
+			pad(out, n);
+
+			byte[][] ids = new byte[n][];
+			int o = 0;
+			out.writeInt(o);
+			for (int v = 0; v < n; v++) {
+				ids[v] = c.node(v).id.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(o += ids[v].length);
+			}
+			for (byte[] id : ids)
+				out.write(id);
+			pad(out, o);
+
+			for (int v = 0; v <= n; v++)
+				out.writeInt(v < n ? c.firstSucc(v) : m);
+			for (int e = 0; e < m; e++)
+				out.writeInt(c.succ(e));
+			for (int e = 0; e < m; e++)
+				out.writeInt(c.succWeight(e));
+			for (int v = 0; v <= n; v++)
+				out.writeInt(v < n ? c.firstPred(v) : m);
+			for (int e = 0; e < m; e++)
+				out.writeInt(c.pred(e));
+			for (int e = 0; e < m; e++)
+				out.writeInt(c.predWeight(e));
+
+			if (order != null) {
+				for (int v : order)
+					out.writeInt(v);
+				for (int v = 0; v < n; v++)
+					out.writeInt(c.depth(v));
+			}
+		}
+		return m;
+	}
+
+	private static void pad(DataOutputStream out, int n) throws IOException {
+		for (; (n & 3) != 0; n++)
+			out.writeByte(0);
+	}
+
+	public static void main(String[] args) {
+		boolean backEdges = false, strict = false;
+		List<String> files = new ArrayList<>();
+		for (String arg : args)
+			if (arg.equals("--back-edges"))
+				backEdges = true;
+			else if (arg.equals("--strict"))
+				strict = true;
+			else
+				files.add(arg);
+		if (files.isEmpty()) {
+			System.err.printf("Usage: GraphFile dotfile... [--back-edges] [--strict]%n");
+			System.err.printf("Writes <dotfile without .dot>%s for each dot file.%n", EXTENSION);
+			System.exit(-1);
+		}
+
+		try {
+			for (String dot : files) {
+				String fn = dot.replaceFirst("\\.dot$", "") + EXTENSION;
+				Graph g = new Dot_reader(backEdges).parse(dot);
+				if (g.validate(strict) != null)
+					throw new IOException(dot + ": Invalid graph");
+				int edges = write(g, fn);
+				System.out.printf("Wrote %s nodes and %s edges to %s%n", g.size(), edges, fn);
+			}
+		} catch (IOException | Dot_reader.ParseException e) {
+			System.err.printf("FATAL: %s%n", e.getMessage());
+			System.exit(-1);
+		}
+	}
+}
@@ -0,0 +1,232 @@
+package scheduler;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates random layered DAGs which can be read by {@link Dot_reader} and
+ * matching resource constraint files. <br>
+ * <br>
+ * The nodes are distributed evenly over depth layers. Each node (except for the
+ * first layer) has between 1 and fanIn predecessors: one in the previous layer,
+ * which makes sure that the graph has the requested depth, and the others in
+ * one of the earlier layers (mostly close ones). A node gets no more than fanOut
+ * successors. The types of the nodes are drawn according to the weights of a
+ * mix.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class GraphGenerator {
+	/**
+	 * The types executed by the ALU resources of {@link #writeRC}.
+	 */
+	private static final RT[] ALU = { RT.ADD, RT.SUB, RT.SH, RT.AND, RT.OR, RT.CMP };
+
+	/**
+	 * Predefined type mixes (weights per type).
+	 */
+	public static final Map<String, Map<RT, Double>> MIXES = new HashMap<>();
+	static {
+		MIXES.put("balanced", mix("ADD:3,SUB:2,MUL:2,DIV:0.5,MEM:2,SH:0.5,AND:0.5,OR:0.5,CMP:0.5"));
+		MIXES.put("alu", mix("ADD:4,SUB:3,MUL:1,MEM:1,SH:1,AND:1,OR:1,CMP:1"));
+		MIXES.put("mem", mix("ADD:2,SUB:1,MUL:1,DIV:0.2,MEM:6"));
+		MIXES.put("mul", mix("ADD:2,SUB:1,MUL:6,DIV:0.2,MEM:1"));
+		MIXES.put("div", mix("ADD:2,SUB:1,MUL:1,DIV:3,MEM:1"));
+	}
+
+	private final Random random;
+	private int nodes = 100, depth = -1, fanIn = 2, fanOut = 4;
+	private Map<RT, Double> mix = MIXES.get("balanced");
+
+	public GraphGenerator(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * @param nodes The number of nodes.
+	 */
+	public void setNodes(int nodes) {
+		if (nodes < 1)
+			throw new IllegalArgumentException("The number of nodes must be positive.");
+		this.nodes = nodes;
+	}
+
+	/**
+	 * @param depth The number of layers or -1 for about the square root of the
+	 *        number of nodes. The width is nodes / depth.
+	 */
+	public void setDepth(int depth) {
+		if (depth == 0 || depth < -1)
+			throw new IllegalArgumentException("The depth must be positive.");
+		this.depth = depth;
+	}
+
+	/**
+	 * @param fanIn The maximum number of predecessors of a node.
+	 * @param fanOut The maximum number of successors of a node.
+	 */
+	public void setFan(int fanIn, int fanOut) {
+		if (fanIn < 1 || fanOut < 1)
+			throw new IllegalArgumentException("Fan-in and fan-out must be positive.");
+		this.fanIn = fanIn;
+		this.fanOut = fanOut;
+	}
+
+	/**
+	 * @param mix The weight of each type.
+	 */
+	public void setMix(Map<RT, Double> mix) {
+		if (mix.isEmpty())
+			throw new IllegalArgumentException("The mix must contain at least one type.");
+		this.mix = mix;
+	}
+
+	/**
+	 * Parses a mix, either the name of a predefined one or a list of weights like
+	 * "MEM:3,MUL:1".
+	 *
+	 * @param s The mix.
+	 * @return The weight of each type.
+	 */
+	public static Map<RT, Double> mix(String s) {
+		if (MIXES.containsKey(s))
+			return MIXES.get(s);
+		Map<RT, Double> mix = new EnumMap<>(RT.class);
+		for (String w : s.split(",")) {
+			String[] kv = w.split(":");
+			mix.put(RT.valueOf(kv[0].trim().toUpperCase()), kv.length > 1 ? Double.parseDouble(kv[1]) : 1.0);
+		}
+		return mix;
+	}
+
+	/**
+	 * Generates a graph and writes it as DOT file.
+	 *
+	 * @param fn The file name.
+	 * @return The number of edges.
+	 */
+	public int write(String fn) throws IOException {
+		int d = Math.min(nodes, depth == -1 ? Math.max(1, (int) Math.round(Math.sqrt(nodes))) : depth);
+		RT[] types = mix.keySet().toArray(new RT[mix.size()]);
+		double[] cumulative = new double[types.length];
+		double sum = 0;
+		for (int i = 0; i < types.length; i++)
+			cumulative[i] = sum += mix.get(types[i]);
+
+		// node i is in layer i * d / nodes, the first node of layer l is first[l]
+		int[] first = new int[d + 1];
+		for (int l = 0; l <= d; l++)
+			first[l] = (int) Math.ceil((double) l * nodes / d);
+		RT[] rt = new RT[nodes];
+		int[] out = new int[nodes], preds = new int[fanIn];
+		int edges = 0;
+
+		try (BufferedWriter w = new BufferedWriter(new FileWriter(fn))) {
+			w.write("digraph G {\n");
+			for (int i = 0; i < nodes; i++) {
+				double r = random.nextDouble() * sum;
+				int t = 0;
+				while (t < types.length - 1 && cumulative[t] <= r)
+					t++;
+				rt[i] = types[t];
+				w.write(String.format("n%d_%s [label=\"%s\"];\n", i, rt[i], rt[i]));
+			}
+			for (int l = 1; l < d; l++)
+				for (int i = first[l]; i < first[l + 1]; i++) {
+					int k = 1 + random.nextInt(fanIn), n = 0;
+					for (int j = 0; j < k; j++) {
+						// the first predecessor is in the previous layer, the others
+						// in a geometrically distributed earlier layer
+						int pl = l - 1;
+						if (j > 0)
+							while (pl > 0 && random.nextDouble() < .5)
+								pl--;
+						int p = -1;
+						for (int tries = 0; tries < 4 && p == -1; tries++) {
+							int c = first[pl] + random.nextInt(first[pl + 1] - first[pl]);
+							if (out[c] < fanOut && !contains(preds, n, c))
+								p = c;
+						}
+						if (p == -1)
+							continue;
+						preds[n++] = p;
+						out[p]++;
+						edges++;
+						w.write(String.format("n%d_%s -> n%d_%s;\n", p, rt[p], i, rt[i]));
+					}
+				}
+			w.write("}\n");
+		}
+		return edges;
+	}
+
+	private static boolean contains(int[] a, int n, int v) {
+		for (int i = 0; i < n; i++)
+			if (a[i] == v)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Writes resource constraints with the given number of instances per
+	 * resource: ALUs for additions, subtractions, shifts, logic and comparisons
+	 * as well as multipliers, dividers and memory ports.
+	 *
+	 * @param fn The file name.
+	 * @param units The number of instances of each resource.
+	 */
+	public static void writeRC(String fn, int units) throws IOException {
+		StringBuilder alu = new StringBuilder();
+		for (RT t : ALU)
+			alu.append(' ').append(t);
+		try (BufferedWriter w = new BufferedWriter(new FileWriter(fn))) {
+			w.write(String.format("// %d instance(s) of each resource%n", units));
+			for (int i = 1; i <= units; i++) {
+				w.write(String.format("ALU%d%s%n", i, alu));
+				w.write(String.format("MUL%d MUL%n", i));
+				w.write(String.format("DIV%d DIV%n", i));
+				w.write(String.format("MEM%d MEM%n", i));
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		Map<String, String> options = new HashMap<String, String>();
+		String out = null;
+		for (String arg : args) {
+			if (arg.startsWith("--")) {
+				int i = arg.indexOf('=');
+				options.put(i == -1 ? arg.substring(2) : arg.substring(2, i), i == -1 ? "" : arg.substring(i + 1));
+			} else
+				out = arg;
+		}
+		if (out == null) {
+			System.err.printf("Usage: GraphGenerator dotfile [--nodes=n] [--depth=d] [--fanin=k] [--fanout=k] [--mix=name|TYPE:weight,...] [--seed=s] [--rc=file --units=k]%n");
+			System.err.printf("Predefined mixes: %s%n", MIXES.keySet());
+			System.exit(-1);
+		}
+
+		try {
+			GraphGenerator gen = new GraphGenerator(Long.parseLong(options.getOrDefault("seed", "1")));
+			gen.setNodes(Integer.parseInt(options.getOrDefault("nodes", "100")));
+			gen.setDepth(Integer.parseInt(options.getOrDefault("depth", "-1")));
+			gen.setFan(Integer.parseInt(options.getOrDefault("fanin", "2")), Integer.parseInt(options.getOrDefault("fanout", "4")));
+			gen.setMix(mix(options.getOrDefault("mix", "balanced")));
+			int edges = gen.write(out);
+			System.out.printf("Wrote %s nodes and %s edges to %s%n", gen.nodes, edges, out);
+			if (options.containsKey("rc")) {
+				writeRC(options.get("rc"), Integer.parseInt(options.getOrDefault("units", "1")));
+				System.out.printf("Wrote resource constraints to %s%n", options.get("rc"));
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.printf("FATAL: %s%n", e.getMessage());
+			System.exit(-1);
+		}
+	}
+}
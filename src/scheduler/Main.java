@@ -1,17 +1,48 @@
 package scheduler;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import scheduler.sdcutil.Cooling;
+import scheduler.sdcutil.Neighbourhood;
+import scheduler.sdcutil.SDCEngine;
+import scheduler.sdcutil.TerminationPolicy;
 
 public class Main {
 
 	public static void main(String[] args) {
+		// options (--name=value) may be given anywhere, all other arguments are positional
+		Map<String, String> options = new HashMap<String, String>();
+		List<String> positional = new ArrayList<String>();
+		for (String arg : args) {
+			if (arg.startsWith("--")) {
+				int i = arg.indexOf('=');
+				options.put(i == -1 ? arg.substring(2) : arg.substring(2, i), i == -1 ? "" : arg.substring(i + 1));
+			} else
+				positional.add(arg);
+		}
+		// in batch mode, the directory or manifest takes the place of the dot file
+		String batch = options.get("batch");
+		if (batch != null)
+			positional.add(0, batch);
+		args = positional.toArray(new String[positional.size()]);
+
 		RC rc = null;
 		if (args.length > 1) {
 			System.out.println("Reading resource constraints from " + args[1] + "\n");
 			rc = new RC();
-			rc.parse(args[1]);
+			try {
+				rc.parse(args[1]);
+			} catch (IOException e) {
+				System.err.printf("FATAL: Could not read resource constraints: %s%n", e.getMessage());
+				System.exit(-1);
+			}
+			rc.print(System.out);
 		}
 		int quality = 1;
 		if (args.length > 2) {
@@ -24,48 +55,135 @@ public class Main {
 				System.exit(-1);
 			}
 		}
+		SDCEngine engine = SDCEngine.LP;
+		if (args.length > 3) {
+			engine = SDCEngine.getEngine(args[3]);
+			if (engine == null) {
+				System.err.println("Argument engine must be one of lp, nlp, lpath, inc, bf");
+				System.exit(-1);
+			}
+		}
+		int replicas = positiveOption(options, "replicas"), speculation = positiveOption(options, "speculate");
+		Neighbourhood moves = Neighbourhood.getNeighbourhood(options.getOrDefault("moves", Neighbourhood.SHOVE.name));
+		if (moves == null) {
+			System.err.println("Option moves must be one of shove, swap, chain, peak, mixed");
+			System.exit(-1);
+		}
+		Cooling cooling = Cooling.getCooling(options.getOrDefault("cooling", Cooling.DEFAULT.name));
+		if (cooling == null) {
+			System.err.println("Option cooling must be one of default, lam, equilibrium");
+			System.exit(-1);
+		}
+		int stall = options.containsKey("stall") ? positiveOption(options, "stall") : 0;
 
-		Dot_reader dr = new Dot_reader(false);
 		if (args.length < 1) {
-			System.err.printf("Usage: scheduler dotfile resource_constraints [quality (1-10)]%n");
+			System.err.printf("Usage: scheduler dotfile resource_constraints [quality (1-10)] [engine (lp, nlp, lpath, inc, bf)] [--replicas=n] [--speculate=k] [--moves=(shove|swap|chain|peak|mixed)] [--cooling=(default|lam|equilibrium)] [--stall=n]%n");
+			System.err.printf("       scheduler --batch=(directory|manifest) [resource_constraints] [quality (1-10)] [engine] [--threads=n] [--results=file] [--draw]%n");
+			System.exit(-1);
+		}
+
+		try (ResultSink sink = new ResultSink(options.getOrDefault("results", "benchmark.csv"))) {
+			if (batch != null) {
+				int threads = options.containsKey("threads") ? positiveOption(options, "threads") : Runtime.getRuntime().availableProcessors();
+				Batch b = new Batch(batch, rc, quality);
+				b.run(threads, engine, replicas, speculation, moves, cooling, stall, options.containsKey("draw"), sink);
+			} else {
+				System.out.println("Scheduling " + args[0]);
+				System.out.println();
+				schedule(args[0], rc, quality, engine, replicas, speculation, moves, cooling, stall, true, sink, System.out);
+			}
+		} catch (IOException | IllegalArgumentException | Dot_reader.ParseException e) {
+			System.err.printf("FATAL: %s%n", e.getMessage());
 			System.exit(-1);
-		} else {
-			System.out.println("Scheduling " + args[0]);
-			System.out.println();
 		}
-		Graph g = dr.parse(args[0]);
+	}
+
+	/**
+	 * Schedules a graph with ASAP, ALAP and SASDC and records the costs. Timing
+	 * constraints are read from &lt;dotfile without .dot&gt;.sdc if present.
+	 * Graphs with the extension of {@link GraphFile} are read as binary graphs.
+	 * 
+	 * @param dot The dot file.
+	 * @param rc The resource constraints.
+	 * @param quality The quality of SASDC.
+	 * @param engine The SDC engine of SASDC.
+	 * @param replicas The number of replicas of SASDC.
+	 * @param speculation The number of speculative candidates of SASDC.
+	 * @param moves The neighbourhood of SASDC.
+	 * @param cooling The cooling schedule of SASDC.
+	 * @param stall The number of steps without improvement after which SASDC
+	 *            ends or 0 to end by the cooling schedule.
+	 * @param draw Whether to draw the schedules into schedules/.
+	 * @param sink Receives the results.
+	 * @param out Receives the progress of the schedulers.
+	 * @throws IOException if the timing constraints cannot be read
+	 * @throws IllegalArgumentException if the engine does not support the
+	 *         timing constraints
+	 */
+	static void schedule(String dot, RC rc, int quality, SDCEngine engine, int replicas, int speculation, Neighbourhood moves, Cooling cooling, int stall, boolean draw, ResultSink sink, PrintStream out) throws IOException {
+		Graph g = GraphFile.load(dot, false);
+		if (g.validate(false, out) != null)
+			throw new IllegalArgumentException(dot + ": Found circular graph");
+		TimingConstraints tc = null;
+		String tcfn = dot.replaceFirst("(\\.dot|\\" + GraphFile.EXTENSION + ")$", "") + ".sdc";
+		if (new File(tcfn).exists()) {
+			out.println("Reading timing constraints from " + tcfn);
+			tc = new TimingConstraints();
+			tc.parse(tcfn, g);
+			out.printf("Read %d timing constraints%n%n", tc.size());
+			if (tc.size() > 0 && !engine.timing)
+				throw new IllegalArgumentException(String.format("%s: Engine %s does not support timing constraints", tcfn, engine.name));
+		}
 		double asapCost, alapCost, sasdcCost;
 
-		int i = args[0].lastIndexOf("/");
+		int i = dot.lastIndexOf("/");
 		if (i == -1) // fck windwos
-			i = args[0].lastIndexOf("\\");
-		String fn = args[0].substring(i + 1);
+			i = dot.lastIndexOf("\\");
+		String fn = dot.substring(i + 1);
 
 		Scheduler s = new ASAP();
 		Schedule sched = s.schedule(g);
-		System.out.printf("Cost (ASAP) = %s%n", asapCost = sched.cost());
-		sched.draw("schedules/ASAP_" + fn);
+		out.printf("Cost (ASAP) = %s%n", asapCost = sched.cost());
+		if (draw)
+			sched.draw("schedules/ASAP_" + fn);
 
 		s = new ALAP();
 		sched = s.schedule(g);
-		System.out.printf("Cost (ALAP) = %s%n", alapCost = sched.cost());
-		sched.draw("schedules/ALAP_" + fn);
+		out.printf("Cost (ALAP) = %s%n", alapCost = sched.cost());
+		if (draw)
+			sched.draw("schedules/ALAP_" + fn);
 
-		SASDC sasdc = new SASDC(rc, quality);
+		SASDC sasdc = new SASDC(rc, quality, engine, tc);
+		sasdc.setOutput(out);
+		sasdc.setReplicas(replicas);
+		sasdc.setSpeculation(speculation);
+		sasdc.setNeighbourhood(moves);
+		sasdc.setCoolingSchedule(cooling.create());
+		if (stall > 0)
+			sasdc.setTerminationPolicy(new TerminationPolicy.Stall(stall));
 		sched = sasdc.schedule(g);
-		System.out.printf("Cost (SA/SDC) = %s%n", sasdcCost = sched.cost());
-		sched.draw("schedules/SASDC_" + fn);
+		out.printf("Cost (SA/SDC) = %s%n", sasdcCost = sched.cost());
+		if (draw)
+			sched.draw("schedules/SASDC_" + fn);
 
-		File file = new File("benchmark.csv");
+		sink.add(fn, g.size(), asapCost, alapCost, sasdcCost, quality, sasdc.iterations, sasdc.elapsedTime);
+	}
+
+	/**
+	 * Reads a positive integer option or returns 1, if it is not given.
+	 */
+	private static int positiveOption(Map<String, String> options, String name) {
+		if (!options.containsKey(name))
+			return 1;
 		try {
-			boolean heading = !file.exists();
-			FileWriter wtr = new FileWriter("benchmark.csv", true);
-			if (heading)
-				wtr.write(String.format("%s;%s;%s;%s;%s;%s;%s;%s%n", "File", "# Nodes", "ASAP", "ALAP", "SA/SDC", "Quality", "# iterations", "Runtime"));
-			wtr.write(String.format("%s;%s;%.2f;%.2f;%.2f;%s;%.0f;%.2f%n", fn, g.size(), asapCost, alapCost, sasdcCost, quality, sasdc.iterations, sasdc.elapsedTime));
-			wtr.close();
-		} catch (IOException e) {
-			e.printStackTrace();
+			int value = Integer.parseInt(options.get(name));
+			if (value < 1)
+				throw new NumberFormatException();
+			return value;
+		} catch (NumberFormatException x) {
+			System.err.println("Option --" + name + " must be a positive integer");
+			System.exit(-1);
+			return 1;
 		}
 	}
 }
@@ -1,8 +1,12 @@
 package scheduler;
 
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Formatter;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * This class represents a single node.
@@ -24,6 +28,16 @@ public class Node {
 	 * Set of unhandled predecessors
 	 */
 	private HashSet<Node> unhandled_pred;
+	/**
+	 * Cached read-only sets of the successors and predecessors with edge weight 0,
+	 * null if outdated. (Safely published between threads by the final field of
+	 * the unmodifiable wrapper.)
+	 */
+	private Set<Node> succ0, pred0;
+	/**
+	 * Read-only views of successors and predecessors
+	 */
+	private Map<Node, Integer> succView, predView;
 
 	/**
 	 * ID for this node - unique name
@@ -49,6 +63,8 @@ public class Node {
 		predecessors = new HashMap<Node, Integer>();
 		unhandled_succ = new HashSet<Node>();
 		unhandled_pred = new HashSet<Node>();
+		succView = Collections.unmodifiableMap(successors);
+		predView = Collections.unmodifiableMap(predecessors);
 		this.rt = rt;
 	}
 
@@ -62,6 +78,8 @@ public class Node {
 		predecessors = new HashMap<Node, Integer>();
 		unhandled_succ = new HashSet<Node>();
 		unhandled_pred = new HashSet<Node>();
+		succView = Collections.unmodifiableMap(successors);
+		predView = Collections.unmodifiableMap(predecessors);
 	}
 
 	/**
@@ -75,6 +93,7 @@ public class Node {
 		if (n == null)
 			return null;
 		successors.put(n, w);
+		succ0 = null;
 		if (w == 0)
 			unhandled_succ.add(n);
 		return this;
@@ -91,6 +110,7 @@ public class Node {
 		if (n == null)
 			return null;
 		predecessors.put(n, it);
+		pred0 = null;
 		if (it == 0)
 			unhandled_pred.add(n);
 		return this;
@@ -105,6 +125,7 @@ public class Node {
 	public boolean remove(Node n) {
 		unhandled_succ.remove(n);
 		unhandled_pred.remove(n);
+		succ0 = pred0 = null;
 		return successors.remove(n) != null || predecessors.remove(n) != null;
 	}
 
@@ -125,10 +146,7 @@ public class Node {
 	 * @return true iff this node is a root
 	 */
 	public boolean root() {
-		for (Node n : predecessors.keySet())
-			if (predecessors.get(n) == 0)
-				return false;
-		return true;
+		return predecessors().isEmpty();
 	}
 
 	/**
@@ -138,10 +156,7 @@ public class Node {
 	 * @return true iff this node is a leaf
 	 */
 	public boolean leaf() {
-		for (Node n : successors.keySet())
-			if (successors.get(n) == 0)
-				return false;
-		return true;
+		return successors().isEmpty();
 	}
 
 	/**
@@ -168,23 +183,30 @@ public class Node {
 	 * Mark all nodes as unhandled again
 	 */
 	public void reset() {
-		unhandled_succ = successors();
-		unhandled_pred = predecessors();
+		unhandled_succ = new HashSet<Node>(successors());
+		unhandled_pred = new HashSet<Node>(predecessors());
 	}
 
 	/**
 	 * Return all successors of this node within one Iteration. Means all successors
-	 * with edge weight 0
+	 * with edge weight 0. The set is built once and cached until the node is
+	 * changed.
 	 * 
-	 * @return A set of all successors of this iteration
+	 * @return A read-only set of all successors of this iteration
 	 */
-	public HashSet<Node> successors() {
-		HashSet<Node> succ = new HashSet<Node>();
-		for (Node n : successors.keySet()) {
-			if (successors.get(n) == 0)
-				succ.add(n);
-		}
-		return succ;
+	public Set<Node> successors() {
+		Set<Node> s = succ0;
+		if (s == null)
+			succ0 = s = zeroWeight(successors);
+		return s;
+	}
+
+	private static Set<Node> zeroWeight(HashMap<Node, Integer> edges) {
+		HashSet<Node> s = new HashSet<Node>();
+		for (Map.Entry<Node, Integer> e : edges.entrySet())
+			if (e.getValue() == 0)
+				s.add(e.getKey());
+		return Collections.unmodifiableSet(s);
 	}
 
 	/**
@@ -197,19 +219,27 @@ public class Node {
 		return (HashMap<Node, Integer>) successors.clone();
 	}
 
+	/**
+	 * Return all successors with arbitrary edge weight without copying them
+	 * 
+	 * @return A read-only view of all successors and their edge weight
+	 */
+	public Map<Node, Integer> successorWeights() {
+		return succView;
+	}
+
 	/**
 	 * Return all predecessors of this node within one Iteration. Means all
-	 * predecessors with edge weight 0
+	 * predecessors with edge weight 0. The set is built once and cached until the
+	 * node is changed.
 	 * 
-	 * @return A set of all predecessors of this iteration
+	 * @return A read-only set of all predecessors of this iteration
 	 */
-	public HashSet<Node> predecessors() {
-		HashSet<Node> pred = new HashSet<Node>();
-		for (Node n : predecessors.keySet()) {
-			if (predecessors.get(n) == 0)
-				pred.add(n);
-		}
-		return pred;
+	public Set<Node> predecessors() {
+		Set<Node> s = pred0;
+		if (s == null)
+			pred0 = s = zeroWeight(predecessors);
+		return s;
 	}
 
 	/**
@@ -222,6 +252,15 @@ public class Node {
 		return (HashMap<Node, Integer>) predecessors.clone();
 	}
 
+	/**
+	 * Return all predecessors with arbitrary edge weight without copying them
+	 * 
+	 * @return A read-only view of all predecessors and their edge weight
+	 */
+	public Map<Node, Integer> predecessorWeights() {
+		return predView;
+	}
+
 	public String toString() {
 		return id;
 	}
@@ -231,13 +270,7 @@ public class Node {
 	}
 
 	public boolean equals(Object e) {
-		try {
-			Node nd = (Node) e;
-			return nd.id.equals(this.id);
-
-		} catch (Throwable err) {
-			return false;
-		}
+		return e == this || e instanceof Node && ((Node) e).id.equals(id);
 	}
 
 	/**
@@ -315,31 +348,71 @@ public class Node {
 	}
 
 	/**
-	 * Gets the depth of the node (whereas 0 is root, 1 is successor of root and so on).
+	 * Gets the depth of the node (whereas 0 is root, 1 is successor of root and so on)
+	 * along the edges with weight 0. The depths of this node and its predecessors are
+	 * computed iteratively on the first call and cached. For whole graphs use
+	 * Graph.compact().depth().
 	 */
 	public int getDepth() {
-		if (depth == -1) {
+		if (depth != -1)
+			return depth;
+		// post-order traversal of the predecessors which have no depth yet
+		ArrayDeque<Node> stack = new ArrayDeque<Node>();
+		HashSet<Node> expanded = new HashSet<Node>();
+		stack.push(this);
+		while (!stack.isEmpty()) {
+			Node nd = stack.peek();
+			if (nd.depth != -1) {
+				stack.pop();
+				continue;
+			}
+			boolean first = expanded.add(nd), ready = true;
 			int m = 0;
-			for (Node n : predecessors.keySet())
-				m = Math.max(m, n.getDepth()+1);
-			depth = m;
+			for (Node p : nd.predecessors()) {
+				if (p.depth != -1)
+					m = Math.max(m, p.depth + 1);
+				else if (!first || expanded.contains(p))
+					throw new IllegalStateException("Found circular graph at " + p);
+				else {
+					ready = false;
+					stack.push(p);
+				}
+			}
+			if (ready) {
+				nd.depth = m;
+				stack.pop();
+			}
 		}
 		return depth;
 	}
+
+	/**
+	 * Presets the depth of the node (e.g. when loaded from a binary graph file).
+	 */
+	void setDepth(int depth) {
+		this.depth = depth;
+	}
 	
 	/**
 	 * Checks whether this is a (long-distance) predecessor of the specified node.
+	 * Each node is visited at most once. For repeated queries use
+	 * Graph.reachability().
 	 * 
 	 * @param node The node which is the potential successor.
 	 * @return True if node is predecessor of this.
 	 */
 	public boolean isPredecessorOf(Node node) {
-		if (this.successors.containsKey(node))
-			return true;
-		else
-			for (Node n : this.successors.keySet())
-				if (n.isPredecessorOf(node))
-					return true;
+		HashSet<Node> visited = new HashSet<Node>();
+		ArrayDeque<Node> stack = new ArrayDeque<Node>();
+		stack.push(this);
+		while (!stack.isEmpty()) {
+			Node nd = stack.pop();
+			if (nd.successors.containsKey(node))
+				return true;
+			for (Node n : nd.successors.keySet())
+				if (visited.add(n))
+					stack.push(n);
+		}
 		return false;
 	}
 }
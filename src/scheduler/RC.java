@@ -1,8 +1,9 @@
 package scheduler;
 
 import java.io.BufferedReader;
-import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -34,75 +35,72 @@ public class RC {
 	 * Reads the input and builds up the resource constraints
 	 * 
 	 * @param input - Buffered reader pointing to the configuration file
+	 * @throws IOException if the input cannot be read
 	 */
-	private void lex(BufferedReader input) {
+	private void lex(BufferedReader input) throws IOException {
 		String line;
 		Pattern res_def = Pattern.compile("(\\w\\w*)\\s+(\\w\\w*).*");
 		Matcher m;
-		try {
-			line = input.readLine();
-			while (line != null) {
-				if (line.startsWith("//")) { // Ignore comments
-					line = input.readLine();
-					continue;
-				}
-				m = res_def.matcher(line);
-				if (m.matches()) {
-					HashSet<RT> ops = new HashSet<RT>();
-					String[] opArray = line.split("\\s+");
-					for (int i = 1; i < opArray.length; i++) {
-						RT currOp = RT.getRT(opArray[i]);
-						ops.add(currOp); // Add operation to list of ops that this resource can execute
-						operations.get(currOp).add(opArray[0]); // Add resource to list of res that can execute that op
-					}
-					res.put(opArray[0], ops);
-				}
-
+		line = input.readLine();
+		while (line != null) {
+			if (line.startsWith("//")) { // Ignore comments
 				line = input.readLine();
+				continue;
 			}
-		} catch (Throwable e) {
-			System.err.printf("FATAL: Could not read from input%n");
-			e.printStackTrace(System.err);
-			System.exit(-1);
+			m = res_def.matcher(line);
+			if (m.matches()) {
+				HashSet<RT> ops = new HashSet<RT>();
+				String[] opArray = line.split("\\s+");
+				for (int i = 1; i < opArray.length; i++) {
+					RT currOp = RT.getRT(opArray[i]);
+					ops.add(currOp); // Add operation to list of ops that this resource can execute
+					operations.get(currOp).add(opArray[0]); // Add resource to list of res that can execute that op
+				}
+				res.put(opArray[0], ops);
+			}
+
+			line = input.readLine();
 		}
+	}
 
+	/**
+	 * Prints the resources and the resources available for each operation
+	 * 
+	 * @param out - the stream to print to
+	 */
+	public void print(PrintStream out) {
 		// Print ops
-		System.out.println("Available resources:");
+		out.println("Available resources:");
 		for (String resName : res.keySet()) {
-			System.out.print(resName + ":\t\t");
+			out.print(resName + ":\t\t");
 			for (RT op : res.get(resName)) {
-				System.out.print(op.name + ", ");
+				out.print(op.name + ", ");
 			}
-			System.out.println();
+			out.println();
 		}
-		System.out.println();
+		out.println();
 
 		// Print resS für each OP
-		System.out.println("Available operations:");
+		out.println("Available operations:");
 		for (RT op : operations.keySet()) {
-			System.out.print(op.name + ":\t\t");
+			out.print(op.name + ":\t\t");
 			for (String resName : operations.get(op)) {
-				System.out.print(resName + ", ");
+				out.print(resName + ", ");
 			}
-			System.out.println();
+			out.println();
 		}
-		System.out.println();
+		out.println();
 	}
 
 	/**
-	 * Try to parse the file supplied and quit if anything goes wrong
+	 * Parses the file supplied
 	 * 
 	 * @param fn - Filename of the configuration file
+	 * @throws IOException if the file cannot be read
 	 */
-	public void parse(String fn) {
-		BufferedReader file_reader;
-
-		try {
-			file_reader = new BufferedReader(new FileReader(fn));
+	public void parse(String fn) throws IOException {
+		try (BufferedReader file_reader = new BufferedReader(new FileReader(fn))) {
 			lex(file_reader);
-		} catch (FileNotFoundException e) {
-			System.err.printf("FATAL: File not found: %s%n", fn);
-			System.exit(-1);
 		}
 	}
 
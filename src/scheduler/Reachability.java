@@ -0,0 +1,219 @@
+package scheduler;
+
+import java.util.Arrays;
+
+/**
+ * An index answering whether a node is a (long-distance) predecessor of another
+ * node within one iteration, i.e. along edges of weight 0.
+ * <p>
+ * For graphs with up to CLOSURE_LIMIT nodes the transitive closure is stored as
+ * bit set, so each query takes O(1). Larger graphs are labeled with two
+ * post-order intervals (see GRAIL, Yildirim et al.) and the topological rank of
+ * each node. The labels reject most unreachable pairs in O(1); the remaining
+ * queries run a depth-first search which is pruned by the same labels.
+ * <p>
+ * The graph must be acyclic. The index is built once and does not reflect later
+ * changes of the graph (see Graph.reachability()). Use fork() to query the same
+ * index from several threads.
+ */
+public class Reachability {
+	/**
+	 * Maximum number of nodes for which the transitive closure is stored.
+	 */
+	public static final int CLOSURE_LIMIT = 8192;
+
+	/**
+	 * The graph, maps each node to its index
+	 */
+	private final CompactGraph graph;
+	/**
+	 * Successors (edge weight 0) of node v: succ[offset[v]] ... succ[offset[v + 1] - 1]
+	 */
+	private final int[] offset, succ;
+	/**
+	 * Rank of each node in a topological order
+	 */
+	private final int[] topo;
+	/**
+	 * Transitive closure (one bit set per node), null for large graphs
+	 */
+	private long[][] closure;
+	/**
+	 * Post-order intervals [low, rank] of two traversals
+	 */
+	private int[] low1, rank1, low2, rank2;
+	private int[] visited, stack;
+	private int visitId;
+
+	public Reachability(Graph g) {
+		this(g.compact());
+	}
+
+	public Reachability(CompactGraph g) {
+		int n = g.size(), m = 0;
+		int[] order = g.order();
+		if (order == null)
+			throw new IllegalArgumentException("Reachability requires an acyclic graph.");
+		graph = g;
+		offset = new int[n + 1];
+		for (int e = 0; e < g.edges(); e++)
+			if (g.succWeight(e) == 0)
+				m++;
+		succ = new int[m];
+		for (int v = 0, i = 0; v < n; v++) {
+			offset[v] = i;
+			for (int e = g.firstSucc(v); e < g.endSucc(v); e++)
+				if (g.succWeight(e) == 0)
+					succ[i++] = g.succ(e);
+			offset[v + 1] = i;
+		}
+
+		topo = new int[n];
+		for (int i = 0; i < n; i++)
+			topo[order[i]] = i;
+
+		if (n <= CLOSURE_LIMIT) {
+			int words = (n + 63) >> 6;
+			closure = new long[n][words];
+			for (int i = n - 1; i >= 0; i--) {
+				int v = order[i];
+				long[] r = closure[v];
+				for (int j = offset[v]; j < offset[v + 1]; j++) {
+					int s = succ[j];
+					r[s >> 6] |= 1L << s;
+					long[] rs = closure[s];
+					for (int w = 0; w < words; w++)
+						r[w] |= rs[w];
+				}
+			}
+		} else {
+			low1 = new int[n];
+			rank1 = new int[n];
+			low2 = new int[n];
+			rank2 = new int[n];
+			stack = new int[n];
+			label(order, false, low1, rank1);
+			label(order, true, low2, rank2);
+			visited = new int[n];
+		}
+	}
+
+	private Reachability(Reachability r) {
+		graph = r.graph;
+		offset = r.offset;
+		succ = r.succ;
+		topo = r.topo;
+		closure = r.closure;
+		low1 = r.low1;
+		rank1 = r.rank1;
+		low2 = r.low2;
+		rank2 = r.rank2;
+		if (closure == null) {
+			stack = new int[offset.length - 1];
+			visited = new int[offset.length - 1];
+		}
+	}
+
+	/**
+	 * Queries on large graphs use buffers which must not be shared between
+	 * threads. This creates an index sharing all data with this one, but having
+	 * its own buffers.
+	 * @return a copy of this index for use in another thread
+	 */
+	public Reachability fork() {
+		return new Reachability(this);
+	}
+
+	/**
+	 * Labels each node with the interval [low, rank], whereas rank is the post-order
+	 * number of a depth-first traversal and low is the minimum rank of all nodes
+	 * reachable from it. A node v can only be reached from u if u's interval
+	 * contains v's interval.
+	 */
+	private void label(int[] order, boolean reverse, int[] low, int[] rank) {
+		int n = order.length, r = 0, sp = 0;
+		int[] next = new int[n]; // index of the next child to visit
+		Arrays.fill(rank, -1);
+		for (int i = 0; i < n; i++) {
+			int root = order[reverse ? n - 1 - i : i];
+			if (rank[root] != -1 || next[root] != 0)
+				continue;
+			stack[sp++] = root;
+			while (sp > 0) {
+				int v = stack[sp - 1];
+				int degree = offset[v + 1] - offset[v];
+				if (next[v] < degree) {
+					int c = succ[offset[v] + (reverse ? degree - 1 - next[v] : next[v])];
+					next[v]++;
+					if (rank[c] == -1 && next[c] == 0)
+						stack[sp++] = c;
+				} else {
+					sp--;
+					rank[v] = r++;
+					low[v] = rank[v];
+					for (int j = offset[v]; j < offset[v + 1]; j++)
+						low[v] = Math.min(low[v], low[succ[j]]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the index of the given node within this index
+	 * @param nd - the node of interest
+	 * @return its index, null if the node is unknown
+	 */
+	public Integer id(Node nd) {
+		return graph.id(nd);
+	}
+
+	/**
+	 * Checks whether node a is a (long-distance) predecessor of node b.
+	 * @param a - the potential predecessor
+	 * @param b - the potential successor
+	 * @return true iff b can be reached from a
+	 */
+	public boolean reaches(Node a, Node b) {
+		return reaches(graph.id(a), graph.id(b));
+	}
+
+	/**
+	 * Checks whether the node with index a is a (long-distance) predecessor of the
+	 * node with index b.
+	 * @param a - index of the potential predecessor
+	 * @param b - index of the potential successor
+	 * @return true iff b can be reached from a
+	 */
+	public boolean reaches(int a, int b) {
+		if (closure != null)
+			return (closure[a][b >> 6] & (1L << b)) != 0;
+		if (excluded(a, b))
+			return false;
+
+		// search, pruned by the labels
+		if (++visitId == Integer.MAX_VALUE) {
+			Arrays.fill(visited, 0);
+			visitId = 1;
+		}
+		int sp = 0;
+		stack[sp++] = a;
+		visited[a] = visitId;
+		while (sp > 0) {
+			int v = stack[--sp];
+			for (int j = offset[v]; j < offset[v + 1]; j++) {
+				int s = succ[j];
+				if (s == b)
+					return true;
+				if (visited[s] == visitId || excluded(s, b))
+					continue;
+				visited[s] = visitId;
+				stack[sp++] = s;
+			}
+		}
+		return false;
+	}
+
+	private boolean excluded(int a, int b) {
+		return topo[a] >= topo[b] || low1[a] > low1[b] || rank1[a] < rank1[b] || low2[a] > low2[b] || rank2[a] < rank2[b];
+	}
+}
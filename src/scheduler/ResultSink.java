@@ -0,0 +1,52 @@
+package scheduler;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Appends the results of scheduled graphs to a CSV file (like benchmark.csv).
+ * The sink may be shared between threads, each result is written as one line
+ * and flushed immediately.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class ResultSink implements Closeable {
+	private final FileWriter wtr;
+
+	public ResultSink(String fn) throws IOException {
+		File file = new File(fn);
+		boolean heading = !file.exists() || file.length() == 0;
+		wtr = new FileWriter(file, true);
+		if (heading)
+			write(String.format("%s;%s;%s;%s;%s;%s;%s;%s%n", "File", "# Nodes", "ASAP", "ALAP", "SA/SDC", "Quality", "# iterations", "Runtime"));
+	}
+
+	/**
+	 * Records the result of a graph.
+	 *
+	 * @param fn The name of the graph file.
+	 * @param nodes The number of nodes.
+	 * @param asap The cost of the ASAP schedule.
+	 * @param alap The cost of the ALAP schedule.
+	 * @param sasdc The cost of the SASDC schedule.
+	 * @param quality The quality of SASDC.
+	 * @param iterations The number of iterations of SASDC.
+	 * @param runtime The runtime of SASDC (seconds).
+	 */
+	public void add(String fn, int nodes, double asap, double alap, double sasdc, int quality, double iterations, double runtime) throws IOException {
+		write(String.format("%s;%s;%.2f;%.2f;%.2f;%s;%.0f;%.2f%n", fn, nodes, asap, alap, sasdc, quality, iterations, runtime));
+	}
+
+	private synchronized void write(String line) throws IOException {
+		wtr.write(line);
+		wtr.flush();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		wtr.close();
+	}
+}
@@ -1,225 +1,744 @@
 package scheduler;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Map.Entry;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
+import scheduler.sdcutil.AnnealingStatistics;
+import scheduler.sdcutil.CoolingSchedule;
+import scheduler.sdcutil.CostCache;
+import scheduler.sdcutil.DefaultCooling;
+import scheduler.sdcutil.MoveGenerator;
+import scheduler.sdcutil.MoveGenerator.Move;
+import scheduler.sdcutil.Neighbourhood;
+import scheduler.sdcutil.SDCEngine;
 import scheduler.sdcutil.SDCNodeList;
-import scpsolver.constraints.Constraint;
-import scpsolver.constraints.LinearBiggerThanEqualsConstraint;
-import scpsolver.constraints.LinearSmallerThanEqualsConstraint;
-import scpsolver.lpsolver.LinearProgramSolver;
-import scpsolver.lpsolver.SolverFactory;
-import scpsolver.problems.LinearProgram;
+import scheduler.sdcutil.SDCSolver;
+import scheduler.sdcutil.TerminationPolicy;
 
 /**
  * Provides an SDC scheduler using iterative optimization via simulated
- * annealing.
+ * annealing. With more than one replica, the annealing is replaced by parallel
+ * tempering: Each replica runs at a fixed temperature of a ladder on its own
+ * thread and the configurations of neighbouring temperatures are swapped
+ * periodically. <br>
+ * <br>
+ * With speculation, each chain evaluates up to K candidate moves concurrently
+ * and tests them in the order they have been drawn. The first accepted move is
+ * applied and the remaining evaluations are discarded, so each step is still a
+ * Metropolis step from the current configuration. <br>
+ * <br>
+ * The temperature and the end of simulated annealing are controlled by a
+ * {@link CoolingSchedule} and a {@link TerminationPolicy}. <br>
+ * <br>
+ * Each chain caches the costs of the configurations it evaluated by the hash
+ * of their resource constraints, so a move which leads to a known
+ * configuration is only solved if it is accepted (not with speculation).
  * 
  * @author Mitja Stachowiak, Ludwig Meysel
  *
  */
 public class SASDC extends Scheduler {
 
+	private static final long SEED = 45676415;
+
 	private HashMap<Node, Integer> vars;
+	private Node[] index; // the nodes by their variable index.
+	private int[] span; // the length of the interval of each node - 1.
 	private RC constraints;
-	private LinearProgramSolver lpSolver;
+	private TimingConstraints timing;
+	private SDCEngine engine;
+	private Neighbourhood neighbourhood = Neighbourhood.SHOVE;
+	private CoolingSchedule cooling = new DefaultCooling();
+	private TerminationPolicy termination; // null for the one of the cooling schedule.
 	private int quality;
-	private Random random;
+	private int replicas = 1;
+	private int speculation = 1;
+	private ForkJoinPool speculationPool;
+	private int cacheSize = 1 << 16;
+	private PrintStream out = System.out;
 
 	public double iterations, elapsedTime;
+	public long simplexIterations = -1, simplexSolves = -1; // -1 if the engine doesn't use the simplex method.
+	public long cacheHits, cacheMisses;
+
+	public SASDC(RC constraints, int quality) {
+		this(constraints, quality, SDCEngine.LP);
+	}
+
+	public SASDC(RC constraints, int quality, SDCEngine engine) {
+		this(constraints, quality, engine, null);
+	}
 
 	/**
-	 * Index of first resource constraint (for faster modification of the
-	 * LinearProgram).
+	 * @param constraints The resource constraints.
+	 * @param quality The quality in range 1 &lt;= quality &lt;= 10.
+	 * @param engine The solver for the SDC. Must support timing constraints
+	 *            (e.g. {@link SDCEngine#BELLMAN_FORD}), if some are given.
+	 * @param timing Additional timing constraints (may be null).
 	 */
-	private int rc0;
-
-	public SASDC(RC constraints, int quality) {
+	public SASDC(RC constraints, int quality, SDCEngine engine, TimingConstraints timing) {
 		if (constraints == null)
 			throw new IllegalArgumentException("Resource constraints cannot be null.");
 		if (quality < 1 || quality > 10)
 			throw new IllegalArgumentException("Argument quality must be in range 0 <= quality <= 10");
+		if (engine == null)
+			throw new IllegalArgumentException("SDC engine cannot be null.");
 
-		random = new Random(45676415);
 		this.constraints = constraints;
 		this.quality = quality;
-		this.lpSolver = SolverFactory.newDefault();
+		this.engine = engine;
+		this.timing = timing;
+		if (timing != null && timing.size() > 0 && !engine.timing)
+			throw new IllegalArgumentException("Engine " + engine.name + " does not support timing constraints.");
+	}
+
+	/**
+	 * Sets the number of replicas. With more than one replica, parallel tempering
+	 * is used instead of simulated annealing.
+	 * 
+	 * @param replicas The number of replicas (and threads).
+	 */
+	public void setReplicas(int replicas) {
+		if (replicas < 1)
+			throw new IllegalArgumentException("The number of replicas must be positive.");
+		this.replicas = replicas;
+	}
+
+	/**
+	 * Sets the maximum number of candidate moves which are evaluated concurrently
+	 * by each chain. The actual number adapts to the acceptance rate, so
+	 * speculation mainly takes effect in the cold phase.
+	 * 
+	 * @param speculation The number of candidates (and threads).
+	 */
+	public void setSpeculation(int speculation) {
+		if (speculation < 1)
+			throw new IllegalArgumentException("The number of speculative candidates must be positive.");
+		this.speculation = speculation;
+	}
+
+	/**
+	 * Sets the stream which receives the progress of the scheduler (default:
+	 * System.out).
+	 * 
+	 * @param out The stream.
+	 */
+	public void setOutput(PrintStream out) {
+		if (out == null)
+			throw new IllegalArgumentException("Output stream cannot be null.");
+		this.out = out;
+	}
+
+	/**
+	 * Sets the kind of moves which are drawn from the current order of the nodes.
+	 * 
+	 * @param neighbourhood The neighbourhood (default: shove).
+	 */
+	public void setNeighbourhood(Neighbourhood neighbourhood) {
+		if (neighbourhood == null)
+			throw new IllegalArgumentException("Neighbourhood cannot be null.");
+		this.neighbourhood = neighbourhood;
+	}
+
+	/**
+	 * Sets the number of costs which are cached by each chain.
+	 * 
+	 * @param cacheSize The capacity of the cache (0 disables it).
+	 */
+	public void setCacheSize(int cacheSize) {
+		if (cacheSize < 0)
+			throw new IllegalArgumentException("The cache size cannot be negative.");
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * Sets the cooling schedule of simulated annealing. Parallel tempering keeps
+	 * its fixed temperature ladder.
+	 * 
+	 * @param cooling The cooling schedule (default: {@link DefaultCooling}).
+	 */
+	public void setCoolingSchedule(CoolingSchedule cooling) {
+		if (cooling == null)
+			throw new IllegalArgumentException("Cooling schedule cannot be null.");
+		this.cooling = cooling;
+	}
+
+	/**
+	 * Sets the termination policy. Parallel tempering checks it after each round
+	 * with the combined statistics of all replicas.
+	 * 
+	 * @param termination The termination policy or null to use the one of the
+	 *            cooling schedule (or the fixed number of rounds without
+	 *            improvement of parallel tempering).
+	 */
+	public void setTerminationPolicy(TerminationPolicy termination) {
+		this.termination = termination;
 	}
 
 	@Override
 	public Schedule schedule(Graph sg) {
-		// index all nodes
+		if (speculation > 1)
+			speculationPool = new ForkJoinPool(speculation);
+		try {
+			return run(sg);
+		} finally {
+			if (speculationPool != null)
+				speculationPool.shutdown();
+			speculationPool = null;
+		}
+	}
+
+	private Schedule run(Graph sg) {
+		// index all nodes in topological order
+		CompactGraph g = sg.compact();
+		if (!g.acyclic())
+			throw new IllegalArgumentException("SASDC requires an acyclic graph.");
 		vars = new HashMap<>();
-		for (Node n : sg) {
+		index = new Node[sg.size()];
+		span = new int[sg.size()];
+		for (int v : g.order()) {
+			Node n = g.node(v);
 			// System.out.printf("x%s => %s%n", vars.size(), n.id);
+			index[vars.size()] = n;
+			span[vars.size()] = n.getRT().delay;
 			vars.put(n, vars.size());
 		}
 
-		SDCNodeList nodes = new SDCNodeList(constraints, sg);
-		LinearProgram lp = getBaseLP();
-
-		rc0 = lp.getConstraints().size() - 1;
+		if (replicas > 1)
+			return temper(sg);
 
 		// shuffle initial schedule and calc start temperature
-		System.out.println("SDC with SA: Setting up initial configuration.");
-		Schedule current = makeSchedule(nodes, lp);
-		double[] cost = new double[nodes.length];
-		for (int i = 0; i < nodes.length; i++) {
-			current = modify(nodes, lp);
-			cost[i] = current.cost();
-		}
+		out.println("SDC with SA: Setting up initial configuration.");
+		Chain chain = new Chain(sg, SEED);
+		double[] cost = new double[chain.nodes.length];
+		chain.init(cost, 0);
 
 		// run SA...
-		double T = 20 * stdDeviation(cost), // initial temperature
-				tu = .5, // temperature update factor
-				ar = 1, // acceptance ratio
-				ccost = cost[cost.length - 1], changes = 1, // total changes
-				acceptedChanges = 1; // accepted Changes
+		double T = cooling.initialTemperature(cost), // initial temperature
+				tu = .5; // temperature update factor
 
-		int inner = (int) Math.ceil(this.quality * Math.pow(nodes.length, 4.0 / 3)), maxzc = (int) Math.ceil(inner / 10);
+		int inner = cooling.sweepLength(chain.nodes.length, quality), maxzc = (int) Math.ceil(inner / 10);
+		chain.cooling = cooling;
+		chain.termination = termination != null ? termination : cooling.termination();
 
-		System.out.printf("SDC with SA: Running annealing with quality = %s and T0 = %.2f ...%n", quality, T);
+		out.printf("SDC with SA: Running annealing with quality = %s, engine = %s, moves = %s, cooling = %s and T0 = %.2f ...%n", quality, engine.name, neighbourhood.name, cooling.getClass().getSimpleName(), T);
 		double time = System.nanoTime();
-		while (ar > .12) {
-			int zeroChange = 0;
-			for (int i = 0; i < inner; i++) {
-				changes++;
-				Schedule temp = modify(nodes, lp);
-				double tcost = temp.cost();
-				double dc = tcost - ccost;
-				double r = Math.random();
-				if (dc == 0)
-					zeroChange++;
-				if (r < Math.exp(-dc / T) && zeroChange <= maxzc) {
-					current = temp;
-					acceptedChanges++;
-					ccost = tcost;
-				} else
-					nodes.revert();
-			}
-			ar = acceptedChanges / changes;
+		while (true) {
+			chain.sweep(T, inner, maxzc);
 			double tutmp = tu;
-			if (ar > .96)
-				tu = .5;
-			else if (ar > .8)
-				tu = .9;
-			else if (ar > .15)
-				tu = .95;
-			else
-				tu = .8;
+			tu = cooling.factor(chain.stats);
 			if (tutmp != tu)
-				System.out.printf("\t- Updating temperature factor %.2f (iterations: %.0f, temperature: %.2f, elapsed time: %.1fsec)%n", tu, changes, T, (System.nanoTime() - time) / 1e9);
+				out.printf("\t- Updating temperature factor %.2f (iterations: %s, temperature: %.2f, elapsed time: %.1fsec)%n", tu, chain.stats.iterations(), T, (System.nanoTime() - time) / 1e9);
 			T *= tu;
+			if (chain.stopped || chain.termination.done(chain.stats))
+				break;
 		}
 
 		elapsedTime = time = (System.nanoTime() - time) / 1e9;
-		iterations = changes;
-		System.out.printf("Convergence after %.0f iterations in %.1fsec (cost: %.2f).%n", changes, time, ccost);
+		iterations = chain.stats.iterations();
+		simplexIterations = chain.simplexIterations();
+		simplexSolves = chain.simplexSolves();
+		cacheHits = chain.cache == null ? 0 : chain.cache.hits();
+		cacheMisses = chain.cache == null ? 0 : chain.cache.misses();
+		chain.release();
+		if (chain.current == null)
+			throw new RuntimeException("No order of the nodes satisfies the timing constraints.");
+		out.printf("Convergence after %.0f iterations in %.1fsec (cost: %.2f).%n", iterations, time, chain.ccost);
+		printSimplexIterations();
+		printCache();
 
-		return current;
+		return chain.current;
 	}
 
 	/**
-	 * Creates a schedule from the given node list.
+	 * Runs parallel tempering with one chain per replica.
 	 */
-	private Schedule makeSchedule(SDCNodeList nodes, LinearProgram lp) {
-		ArrayList<Constraint> lpc = new ArrayList<Constraint>(lp.getConstraints().subList(0, rc0));
-
-		for (int i = 0; i < nodes.length; i++) {
-			Node n1 = nodes.get(i), n2 = nodes.nextOfType(n1.getRT(), i + 1);
-			if (n2 == null)
-				continue;
-			double[] d = new double[vars.size()];
-			d[vars.get(n1)] = 1;
-			d[vars.get(n2)] = -1;
-			lpc.add(new LinearSmallerThanEqualsConstraint(d, -n1.getDelay(), String.format("r%s", i)));
+	private Schedule temper(Graph sg) {
+		out.printf("SDC with PT: Setting up %s replicas.%n", replicas);
+		final Chain[] chains = new Chain[replicas];
+		double[] cost = new double[replicas * sg.size()];
+		for (int k = 0; k < replicas; k++) {
+			chains[k] = new Chain(sg, SEED + k);
+			chains[k].init(cost, k * sg.size());
 		}
-		lp.setConstraints(lpc);
 
-		Schedule ret = new Schedule();
-		double[] d = lpSolver.solve(lp);
-		if (d[0] + d[1] + d[2] + d[3] + d[4] + d[5] == 0) {
-			System.err.println("Infeasable model for order:\n\t" + nodes);
-			System.exit(1);
+		// geometric temperature ladder from T0 (hottest) to T0 / 1000
+		final double[] T = new double[replicas];
+		double T0 = 20 * CoolingSchedule.stdDeviation(cost);
+		for (int k = 0; k < replicas; k++)
+			T[k] = T0 * Math.pow(1e-3, (double) k / (replicas - 1));
+		int[] at = new int[replicas]; // chain at each temperature
+		for (int k = 0; k < replicas; k++)
+			at[k] = k;
+
+		int n = chains[0].nodes.length, inner = (int) Math.ceil(this.quality * Math.pow(n, 4.0 / 3));
+		final int sweep = Math.max(10, (int) Math.ceil(inner / 10.0)), maxzc = (int) Math.ceil(sweep / 10.0);
+		int stall = 0, maxStall = 10 * quality, rounds = 0;
+		long swaps = 0, swapTries = 0;
+		Random random = new Random(SEED);
+		Schedule best = null;
+		double bcost = Double.POSITIVE_INFINITY;
+		// the statistics of all replicas for the termination policy
+		AnnealingStatistics total = new AnnealingStatistics();
+		double c0 = Double.POSITIVE_INFINITY;
+		for (Chain c : chains)
+			c0 = Math.min(c0, c.bcost);
+		total.start(c0);
+
+		out.printf("SDC with PT: Running %s replicas with quality = %s, engine = %s, moves = %s and T = %.2f to %.4f ...%n", replicas, quality, engine.name, neighbourhood.name, T0, T[replicas - 1]);
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(replicas, Runtime.getRuntime().availableProcessors()));
+		double time = System.nanoTime();
+		try {
+			while (termination != null || stall < maxStall) {
+				// let all replicas run a sweep at their temperature
+				List<Callable<Void>> tasks = new ArrayList<>();
+				for (int k = 0; k < replicas; k++) {
+					final Chain c = chains[at[k]];
+					final double t = T[k];
+					tasks.add(() -> {
+						c.sweep(t, sweep, maxzc);
+						return null;
+					});
+				}
+				for (Future<Void> f : pool.invokeAll(tasks))
+					f.get();
+				rounds++;
+
+				// swap configurations of neighbouring temperatures
+				for (int k = rounds % 2; k + 1 < replicas; k += 2) {
+					Chain a = chains[at[k]], b = chains[at[k + 1]];
+					double d = (1 / T[k] - 1 / T[k + 1]) * (a.ccost - b.ccost);
+					swapTries++;
+					if (d >= 0 || random.nextDouble() < Math.exp(d)) {
+						int tmp = at[k];
+						at[k] = at[k + 1];
+						at[k + 1] = tmp;
+						swaps++;
+					}
+				}
+
+				stall++;
+				for (Chain c : chains)
+					if (c.bcost < bcost) {
+						if (c.bcost < bcost - 1e-9)
+							stall = 0;
+						best = c.best;
+						bcost = c.bcost;
+					}
+
+				if (termination != null) {
+					long steps = 0, accepted = 0;
+					double ccost = Double.POSITIVE_INFINITY;
+					for (Chain c : chains) {
+						steps += c.stats.iterations();
+						accepted += c.stats.accepted();
+						ccost = Math.min(ccost, c.ccost);
+					}
+					total.round(steps, accepted, ccost, bcost);
+					if (termination.done(total))
+						break;
+				}
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException("Parallel tempering failed.", e);
+		} finally {
+			pool.shutdown();
 		}
-		for (Entry<Node, Integer> e : vars.entrySet()) {
-			Node n = e.getKey();
-			int i0 = (int) Math.ceil(d[e.getValue()]);
-			Interval i = new Interval(i0, i0 + n.getRT().delay);
-			ret.add(n, i);
+
+		elapsedTime = time = (System.nanoTime() - time) / 1e9;
+		iterations = 0;
+		simplexIterations = simplexSolves = -1;
+		cacheHits = cacheMisses = 0;
+		for (Chain c : chains) {
+			iterations += c.stats.iterations();
+			if (c.cache != null) {
+				cacheHits += c.cache.hits();
+				cacheMisses += c.cache.misses();
+			}
+			if (c.simplexIterations() >= 0)
+				simplexIterations = Math.max(simplexIterations, 0) + c.simplexIterations();
+			if (c.simplexSolves() >= 0)
+				simplexSolves = Math.max(simplexSolves, 0) + c.simplexSolves();
+			c.release();
 		}
-		return ret;
+		if (best == null)
+			throw new RuntimeException("No order of the nodes satisfies the timing constraints.");
+		out.printf("Convergence after %s rounds and %.0f iterations in %.1fsec (cost: %.2f, swaps: %s/%s).%n", rounds, iterations, time, bcost, swaps, swapTries);
+		printSimplexIterations();
+		printCache();
+
+		return best;
+	}
+
+	private void printSimplexIterations() {
+		if (simplexIterations >= 0)
+			out.printf("\t- Simplex iterations: %s (%.1f per solve, %s solves)%n", simplexIterations, simplexSolves > 0 ? (double) simplexIterations / simplexSolves : 0.0, simplexSolves);
+	}
+
+	private void printCache() {
+		if (cacheHits + cacheMisses > 0)
+			out.printf("\t- Cost cache: %s hits, %s misses (%.1f%% hits)%n", cacheHits, cacheMisses, 100.0 * cacheHits / (cacheHits + cacheMisses));
+	}
+
+	/**
+	 * Gets the cost of a schedule, whereas infeasible schedules have infinite
+	 * cost and are thus never accepted.
+	 */
+	private static double cost(Schedule s) {
+		return s == null ? Double.POSITIVE_INFINITY : s.cost();
+	}
+
+	/**
+	 * Creates a schedule from a node list.
+	 * 
+	 * @return The schedule or null, if the order is infeasible.
+	 */
+	private Schedule makeSchedule(SDCNodeList nodes, SDCSolver solver) {
+		int[] d = solver.solve(nodes);
+		if (d == null)
+			return null;
+		return new CompactSchedule(index, vars, d, span);
 	}
 
 	/**
-	 * Modifies a node list and creates a new schedule from it.
+	 * Creates a schedule from a node list after a shove. If the shove did not
+	 * change the resource constraints, the previous schedule is still valid and
+	 * the solver is only notified.
 	 * 
-	 * @param nodes The nodelist
-	 * @param lp The linear program
-	 * @return A modified schedule
+	 * @param previous The schedule before the shove.
+	 * @return The schedule or null, if the order is infeasible.
 	 */
-	private Schedule modify(SDCNodeList nodes, LinearProgram lp) {
-		int i0 = Integer.MIN_VALUE;
-		do {
-			i0 = (int) Math.round((2 * random.nextDouble() - 1) * (nodes.length - 1));
-		} while (!(i0 < 0 ? nodes.shoveLeft(-i0) : nodes.shoveRight(i0)));
-		return makeSchedule(nodes, lp);
+	private Schedule makeSchedule(SDCNodeList nodes, SDCSolver solver, Schedule previous) {
+		if (nodes.constraintsChanged())
+			return makeSchedule(nodes, solver);
+		solver.unchanged(nodes);
+		return previous;
 	}
 
 	/**
-	 * Sets up a linear program according to the graph with flow and bounding
-	 * constraints.
+	 * The state of a single annealing chain: the node list, its solver and random
+	 * numbers as well as the current configuration.
 	 */
-	private LinearProgram getBaseLP() {
-		int i = 0, num = vars.size() + 1, tmax = vars.size();
-		double[] d = new double[num];
-		d[tmax] = 1;
-		LinearProgram lp = new LinearProgram(d);
-		for (Node n : vars.keySet()) {
-			// t_n >= 0
-			d = new double[num];
-			d[vars.get(n)] = 1;
-			lp.addConstraint(new LinearBiggerThanEqualsConstraint(d, 0, String.format("c%s", i++)));
-
-			// t_n <= tMax (described as t_n - tMax <= 0)
-			d = new double[num];
-			d[vars.get(n)] = 1;
-			d[tmax] = -1;
-			lp.addConstraint(new LinearSmallerThanEqualsConstraint(d, 0, String.format("c%s", i++)));
-
-			for (Node p : n.predecessors()) {
-				// flow constraints (t_p - t_n <= -delay(t_p))
-				d = new double[num];
-				d[vars.get(p)] = 1;
-				d[vars.get(n)] = -1;
-				// lp.addConstraint(new LinearSmallerThanEqualsConstraint(d, -1,
-				// String.format("c%s", i++)));
-				lp.addConstraint(new LinearSmallerThanEqualsConstraint(d, -p.getDelay(), String.format("c%s", i++)));
+	private class Chain {
+		final SDCNodeList nodes;
+		final SDCSolver solver;
+		final MoveGenerator moves;
+		final Random random;
+		final CostCache cache; // null if disabled.
+
+		Schedule current, best;
+		double ccost, bcost = Double.POSITIVE_INFINITY;
+		final AnnealingStatistics stats = new AnnealingStatistics();
+		CoolingSchedule cooling; // null for parallel tempering.
+		TerminationPolicy termination;
+		boolean stopped; // whether the termination policy ended the annealing.
+
+		Worker[] workers; // evaluate speculative candidates.
+		double rate = 1; // moving average of the acceptance rate.
+		int acceptedWorker = -1; // the last accepted candidate.
+		Move acceptedMove; // its move (or null).
+
+		Chain(Graph sg, long seed) {
+			nodes = new SDCNodeList(constraints, sg);
+			solver = engine.create(vars, timing);
+			moves = neighbourhood.create();
+			random = new Random(seed);
+			cache = cacheSize > 0 ? new CostCache(cacheSize) : null;
+		}
+
+		/**
+		 * Shuffles the initial configuration and records the cost of each step.
+		 * 
+		 * @param cost The array to store the costs.
+		 * @param offset The index of the first cost.
+		 */
+		void init(double[] cost, int offset) {
+			current = makeSchedule();
+			for (int i = 0; i < nodes.length; i++) {
+				current = modify();
+				cost[offset + i] = cost(current);
+			}
+			ccost = cost[offset + nodes.length - 1];
+			updateBest();
+			stats.start(ccost);
+		}
+
+		/**
+		 * Runs the given number of Metropolis steps at a fixed temperature. The
+		 * sweep ends early, if the chain reaches equilibrium or the annealing ends.
+		 * 
+		 * @param T The temperature.
+		 * @param steps The number of steps.
+		 * @param maxzc The maximum number of accepted steps without cost change.
+		 */
+		void sweep(double T, int steps, int maxzc) {
+			stats.sweep();
+			if (speculation > 1) {
+				speculate(T, steps, maxzc);
+				return;
+			}
+			int zeroChange = 0;
+			for (int i = 0; i < steps; i++) {
+				drawMove();
+				Double cached = cachedCost();
+				Schedule temp = null;
+				double tcost;
+				if (cached == null) {
+					temp = SASDC.this.makeSchedule(nodes, solver, current);
+					tcost = cost(temp);
+					if (cache != null && nodes.constraintsChanged())
+						cache.put(nodes.hash(), tcost);
+				} else
+					tcost = cached;
+				double dc = tcost - ccost;
+				double r = random.nextDouble();
+				if (dc == 0)
+					zeroChange++;
+				boolean accept = r < Math.exp(-dc / T) && zeroChange <= maxzc;
+				if (accept) {
+					if (cached != null) { // the solver still has the current configuration
+						temp = makeSchedule();
+						tcost = cost(temp);
+					}
+					current = temp;
+					ccost = tcost;
+					if (ccost < bcost)
+						updateBest();
+				} else {
+					moves.revert(nodes);
+					if (cached != null)
+						solver.restored(nodes);
+					else
+						solver.revert();
+				}
+				if (step(accept))
+					break;
 			}
+		}
+
+		/**
+		 * Looks up the cost of the list after a move, if the move changed the
+		 * resource constraints.
+		 * 
+		 * @return The cost or null, if it is not cached.
+		 */
+		private Double cachedCost() {
+			return cache != null && nodes.constraintsChanged() ? cache.get(nodes.hash()) : null;
+		}
+
+		/**
+		 * Records a step in the statistics.
+		 * 
+		 * @return Whether the sweep ends here.
+		 */
+		private boolean step(boolean accept) {
+			stats.step(accept, ccost);
+			if (termination != null && termination.step(stats))
+				return stopped = true;
+			return cooling != null && cooling.equilibrium(stats);
+		}
+
+		/**
+		 * Like sweep(), but evaluates several candidates concurrently.
+		 */
+		void speculate(double T, int steps, int maxzc) {
+			if (workers == null) {
+				workers = new Worker[speculation];
+				for (int w = 0; w < workers.length; w++)
+					workers[w] = new Worker(nodes, moves);
+			}
+			int zeroChange = 0, i = 0;
+			boolean end = false;
+			while (i < steps && !end) {
+				// as many candidates as are expected to be rejected in a row
+				int k = Math.min(Math.min(workers.length, steps - i), Math.max(1, (int) Math.round(1 / Math.max(rate, 1e-3))));
+				Move[] candidates = new Move[k];
+				for (int w = 0; w < k; w++) {
+					candidates[w] = drawMove();
+					moves.revert(nodes);
+				}
+
+				List<Callable<Void>> tasks = new ArrayList<>();
+				for (int w = 0; w < workers.length; w++) {
+					final Worker worker = workers[w];
+					final boolean keep = w == acceptedWorker;
+					final Move move = w < k ? candidates[w] : null, accepted = acceptedMove;
+					final Schedule previous = current;
+					tasks.add(() -> {
+						worker.sync(keep, accepted);
+						if (move != null)
+							worker.evaluate(move, previous);
+						return null;
+					});
+				}
+				try {
+					for (Future<Void> f : speculationPool.invokeAll(tasks))
+						f.get();
+				} catch (InterruptedException | ExecutionException e) {
+					throw new RuntimeException("Speculative evaluation failed.", e);
+				}
+
+				// test the candidates in order until one is accepted
+				acceptedWorker = -1;
+				acceptedMove = null;
+				for (int w = 0; w < k; w++) {
+					i++;
+					Schedule temp = workers[w].result;
+					double tcost = cost(temp);
+					double dc = tcost - ccost;
+					double r = random.nextDouble();
+					if (dc == 0)
+						zeroChange++;
+					boolean accept = r < Math.exp(-dc / T) && zeroChange <= maxzc;
+					rate = .99 * rate + (accept ? .01 : 0);
+					if (accept) {
+						current = temp;
+						ccost = tcost;
+						if (ccost < bcost)
+							updateBest();
+						moves.apply(nodes, candidates[w]);
+						acceptedWorker = w;
+						acceptedMove = candidates[w];
+					}
+					end = step(accept);
+					if (accept || end)
+						break;
+				}
+			}
+		}
+
+		private void updateBest() {
+			if (current != null && ccost < bcost) {
+				best = current;
+				bcost = ccost;
+			}
+		}
+
+		/**
+		 * @return The number of simplex iterations of all solvers of this chain or
+		 *         -1, if they don't use the simplex method.
+		 */
+		long simplexIterations() {
+			long sum = solver.iterations();
+			if (sum >= 0 && workers != null)
+				for (Worker w : workers)
+					sum += w.solver.iterations();
+			return sum;
+		}
 
+		/**
+		 * @return The number of calls to solve() of all solvers of this chain or
+		 *         -1, if they don't use the simplex method.
+		 */
+		long simplexSolves() {
+			long sum = solver.solves();
+			if (sum >= 0 && workers != null)
+				for (Worker w : workers)
+					sum += w.solver.solves();
+			return sum;
+		}
+
+		/**
+		 * Frees the resources of the solvers.
+		 */
+		void release() {
+			solver.release();
+			if (workers != null)
+				for (Worker w : workers)
+					w.solver.release();
+		}
+
+		/**
+		 * Creates a schedule from the node list.
+		 * 
+		 * @return The schedule or null, if the order is infeasible.
+		 */
+		Schedule makeSchedule() {
+			return SASDC.this.makeSchedule(nodes, solver);
+		}
+
+		/**
+		 * Modifies the node list and creates a new schedule from it.
+		 * 
+		 * @return A modified schedule
+		 */
+		Schedule modify() {
+			drawMove();
+			return SASDC.this.makeSchedule(nodes, solver, current);
+		}
+
+		/**
+		 * Applies a random move to the list.
+		 * 
+		 * @return The move.
+		 */
+		Move drawMove() {
+			return moves.generate(nodes, current, random);
 		}
-		lp.setMinProblem(true);
-		return lp;
 	}
 
 	/**
-	 * Calculates the standard deviation of the given values. See:
-	 * {@link https://stackoverflow.com/questions/7988486/how-do-you-calculate-the-variance-median-and-standard-deviation-in-c-or-java}
-	 * 
-	 * @param vals The values.
+	 * A private copy of a chain's node list and solver which evaluates
+	 * speculative candidates.
 	 */
-	private double stdDeviation(double[] vals) {
-		double mean = 0;
-		for (double d : vals)
-			mean += d;
-		mean = mean / vals.length;
+	private class Worker {
+		final SDCNodeList nodes;
+		final SDCSolver solver;
+		final MoveGenerator moves; // of the chain, only applies and reverts moves.
+		boolean trial; // whether the last candidate is still applied.
+		Schedule result;
+
+		Worker(SDCNodeList master, MoveGenerator moves) {
+			nodes = master.copy();
+			this.moves = moves;
+			solver = engine.create(vars, timing);
+			solver.solve(nodes);
+		}
 
-		double tmp = 0;
-		for (double d : vals)
-			tmp += (d - mean) * (d - mean);
+		/**
+		 * Brings the list back to the configuration of the chain.
+		 * 
+		 * @param keep True if the own candidate has been accepted.
+		 * @param move The accepted move or null.
+		 */
+		void sync(boolean keep, Move move) {
+			if (keep) {
+				trial = false;
+				return;
+			}
+			if (trial) {
+				moves.revert(nodes);
+				solver.revert();
+				trial = false;
+			}
+			if (move != null) {
+				moves.apply(nodes, move);
+				if (nodes.constraintsChanged())
+					solver.solve(nodes);
+				else
+					solver.unchanged(nodes);
+			}
+		}
 
-		return Math.sqrt(tmp / vals.length);
+		/**
+		 * Evaluates a candidate move.
+		 * 
+		 * @param move The move.
+		 * @param previous The schedule of the chain's configuration.
+		 */
+		void evaluate(Move move, Schedule previous) {
+			moves.apply(nodes, move);
+			result = makeSchedule(nodes, solver, previous);
+			trial = true;
+		}
 	}
 }
@@ -0,0 +1,94 @@
+package scheduler;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import scheduler.sdcutil.SDCEngine;
+
+/**
+ * Generates graphs of increasing size with {@link GraphGenerator} and runs
+ * ASAP, ALAP and SASDC on each of them. The results are appended to
+ * &lt;dir&gt;/scaling.csv.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class ScalingSweep {
+	public static void main(String[] args) throws IOException {
+		Map<String, String> options = new HashMap<String, String>();
+		String dir = null;
+		for (String arg : args) {
+			if (arg.startsWith("--")) {
+				int i = arg.indexOf('=');
+				options.put(i == -1 ? arg.substring(2) : arg.substring(2, i), i == -1 ? "" : arg.substring(i + 1));
+			} else
+				dir = arg;
+		}
+		if (dir == null) {
+			System.err.printf("Usage: ScalingSweep dir [--sizes=10,100,...] [--mixes=balanced,...] [--units=1,2,...] [--quality=q] [--engine=name] [--depth=d] [--fanin=k] [--fanout=k] [--seed=s]%n");
+			System.exit(-1);
+		}
+		String[] sizes = options.getOrDefault("sizes", "10,30,100,300,1000").split(","),
+				mixes = options.getOrDefault("mixes", "balanced").split(","),
+				units = options.getOrDefault("units", "1,2").split(",");
+		int quality = Integer.parseInt(options.getOrDefault("quality", "1")),
+				depth = Integer.parseInt(options.getOrDefault("depth", "-1")),
+				fanIn = Integer.parseInt(options.getOrDefault("fanin", "2")),
+				fanOut = Integer.parseInt(options.getOrDefault("fanout", "4"));
+		long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+		SDCEngine engine = SDCEngine.getEngine(options.getOrDefault("engine", "lp"));
+		if (engine == null) {
+			System.err.println("Option --engine must be one of lp, nlp, lpath, inc, bf");
+			System.exit(-1);
+		}
+		new File(dir).mkdirs();
+		PrintStream quiet = new PrintStream(OutputStream.nullOutputStream());
+
+		File file = new File(dir, "scaling.csv");
+		boolean heading = !file.exists();
+		try (FileWriter wtr = new FileWriter(file, true)) {
+			if (heading)
+				wtr.write(String.format("%s;%s;%s;%s;%s;%s;%s;%s;%s;%s;%s;%s;%s%n", "Mix", "# Nodes", "# Edges", "Units", "Engine", "Quality", "ASAP", "ALAP", "SA/SDC", "# iterations", "Runtime ASAP", "Runtime ALAP", "Runtime SA/SDC"));
+			for (String m : mixes)
+				for (String size : sizes) {
+					int n = Integer.parseInt(size.trim());
+					String dot = new File(dir, String.format("%s_%d.dot", m, n)).getPath();
+					GraphGenerator gen = new GraphGenerator(seed);
+					gen.setNodes(n);
+					gen.setDepth(depth);
+					gen.setFan(fanIn, fanOut);
+					gen.setMix(GraphGenerator.mix(m));
+					int edges = gen.write(dot);
+
+					for (String u : units) {
+						int k = Integer.parseInt(u.trim());
+						String rcfn = new File(dir, String.format("units_%d", k)).getPath();
+						GraphGenerator.writeRC(rcfn, k);
+						System.out.printf("Scheduling %s with %s unit(s) per resource ...%n", dot, k);
+
+						RC rc = new RC();
+						rc.parse(rcfn);
+						Graph g = new Dot_reader(false).parse(dot);
+
+						double time = System.nanoTime();
+						double asap = new ASAP().schedule(g).cost();
+						double tAsap = (System.nanoTime() - time) / 1e9;
+						time = System.nanoTime();
+						double alap = new ALAP().schedule(g).cost();
+						double tAlap = (System.nanoTime() - time) / 1e9;
+						SASDC sasdc = new SASDC(rc, quality, engine);
+						sasdc.setOutput(quiet); // SASDC is quite verbose, only the results are of interest here
+						double sasdcCost = sasdc.schedule(g).cost();
+						System.out.printf("\tASAP = %.2f, ALAP = %.2f, SA/SDC = %.2f (%.0f iterations in %.1fsec)%n", asap, alap, sasdcCost, sasdc.iterations, sasdc.elapsedTime);
+						wtr.write(String.format("%s;%s;%s;%s;%s;%s;%.2f;%.2f;%.2f;%.0f;%.3f;%.3f;%.2f%n", m, n, edges, k, engine.name, quality, asap, alap, sasdcCost, sasdc.iterations, tAsap, tAlap, sasdc.elapsedTime));
+						wtr.flush();
+					}
+				}
+		}
+	}
+}
@@ -35,13 +35,30 @@ public class Schedule {
 	/**
 	 * Map of nodes and the resource used for this node
 	 */
-	private Map<Node, String> resources = new HashMap<Node, String>();
+	private Map<Node, String> resources;
 		
 	public Schedule() {
+		allocate();
+	}
+	
+	/**
+	 * Creates a schedule without allocating its maps. Subclasses which keep their own representation must call allocate() before using add() or remove() of this class.
+	 * @param allocate - whether to allocate the maps now
+	 */
+	protected Schedule(boolean allocate) {
+		if (allocate)
+			allocate();
+	}
+	
+	/**
+	 * Allocates the (empty) maps of this schedule
+	 */
+	protected void allocate() {
 		nodes = new HashMap<Node, Interval>();
 		slots = new TreeMap<Integer, Set<Node>>();
 		sort_res = new HashMap<RT, TreeMap<Resource, Integer>>();
 		tsort_res = new HashMap<RT, Map<Integer, Resource>>();
+		resources = new HashMap<Node, String>();
 	}
 	
 	/**
@@ -358,8 +375,8 @@ public class Schedule {
 				if (nodes(i) != null) maxNodes = nodes(i).size() > maxNodes ? nodes(i).size() : maxNodes;
 			}
 
-			boolean allResourcesGiven = true;
-			for (Node n : nodes()) {
+			boolean allResourcesGiven = resources != null;
+			if (allResourcesGiven) for (Node n : nodes()) {
 				if (!resources.containsKey(n)) {
 					allResourcesGiven = false;
 					break;
@@ -0,0 +1,119 @@
+package scheduler;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+import scheduler.sdcutil.IncrementalSolver;
+import scheduler.sdcutil.LongestPathSolver;
+import scheduler.sdcutil.SDCNodeList;
+import scheduler.sdcutil.SDCSolver;
+
+/**
+ * Checks the incremental SDC solver against the longest-path solver. A random
+ * sequence of shoves and swaps is applied to the node list like SASDC does,
+ * about half of them are reverted again. Moves which do not change the resource
+ * constraints are passed to {@link SDCSolver#unchanged(SDCNodeList)}. After each
+ * step, the start times kept by the {@link IncrementalSolver} must equal the
+ * ones the {@link LongestPathSolver} calculates from scratch.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class SolverCheck {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.printf("Usage: SolverCheck dotfile resource_constraints [steps] [seed]%n");
+			System.exit(-1);
+		}
+		int steps = 100000;
+		long seed = 45676415;
+		try {
+			if (args.length > 2)
+				steps = Integer.parseInt(args[2]);
+			if (args.length > 3)
+				seed = Long.parseLong(args[3]);
+		} catch (NumberFormatException x) {
+			System.err.println("Arguments steps and seed must be integer values");
+			System.exit(-1);
+		}
+
+		RC rc = new RC();
+		rc.parse(args[1]);
+		Graph g = new Dot_reader(false).parse(args[0]);
+
+		HashMap<Node, Integer> vars = new HashMap<>();
+		for (Node n : g)
+			vars.put(n, vars.size());
+		SDCNodeList list = new SDCNodeList(rc, g);
+		SDCSolver inc = new IncrementalSolver(vars, null), ref = new LongestPathSolver(vars, null);
+		Random random = new Random(seed);
+
+		int step = 0, reverted = 0, unchanged = 0;
+		int[] start = inc.solve(list);
+		for (; step < steps; step++) {
+			boolean swap = random.nextBoolean();
+			if (!(swap ? swap(list, random) : shove(list, random)))
+				break;
+			if (list.constraintsChanged())
+				start = inc.solve(list);
+			else {
+				inc.unchanged(list);
+				unchanged++;
+			}
+			compare(step, swap ? "swap" : "shove", start, ref.solve(list));
+			if (random.nextBoolean()) {
+				list.revert();
+				inc.revert();
+				reverted++;
+				compare(step, "revert", start, ref.solve(list));
+			}
+		}
+		System.out.printf("%s: %s steps (%s reverted, %s unchanged) match the longest-path solution.%n", args[0], step, reverted, unchanged);
+	}
+
+	/**
+	 * Shoves a random node of the list like SASDC does.
+	 *
+	 * @return False if no node of the list can be shoved.
+	 */
+	private static boolean shove(SDCNodeList list, Random random) {
+		if (list.length < 2)
+			return false;
+		for (int tries = 0; tries < 100 * list.length; tries++) {
+			int i0 = (int) Math.round((2 * random.nextDouble() - 1) * (list.length - 1));
+			if (i0 < 0 ? list.shoveLeft(-i0) : list.shoveRight(i0))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Swaps a random node with its next or previous node on the resource like
+	 * the swap moves of SASDC do.
+	 *
+	 * @return False if no node of the list can be swapped.
+	 */
+	private static boolean swap(SDCNodeList list, Random random) {
+		for (int tries = 0; tries < 100 * list.length; tries++) {
+			int i = random.nextInt(list.length);
+			int j = random.nextBoolean() ? list.nextOnResource(i) : list.previousOnResource(i);
+			if (j == -1)
+				continue;
+			int p = Math.min(i, j), q = Math.max(i, j);
+			if (list.move(p, 1, q) || list.move(q, 1, p))
+				return true;
+		}
+		return false;
+	}
+
+	private static void compare(int step, String what, int[] actual, int[] expected) {
+		if (Arrays.equals(actual, expected))
+			return;
+		System.err.printf("Step %s (%s): incremental solution differs from the longest-path solution%n", step, what);
+		System.err.printf("  inc:   %s%n  lpath: %s%n", Arrays.toString(actual), Arrays.toString(expected));
+		System.exit(-1);
+	}
+}
@@ -0,0 +1,143 @@
+package scheduler;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Timing constraints between the start times of the nodes of a graph. Each
+ * constraint is a difference constraint of the form t_u - t_v &lt;= c.
+ * <p>
+ * The constraints are read from a file with one constraint per line:
+ * <pre>
+ * // comment
+ * u - v &lt;= c    (maximum latency from v to u)
+ * u - v &gt;= c    (minimum latency from v to u)
+ * u &gt;= c        (release time)
+ * u &lt;= c        (deadline)
+ * </pre>
+ * where u and v are node ids and c is an integer.
+ */
+public class TimingConstraints implements Iterable<TimingConstraints.Constraint> {
+
+	/**
+	 * A single constraint t_u - t_v &lt;= c. A missing node (null) stands for the
+	 * time step 0.
+	 */
+	public static final class Constraint {
+		public final Node u, v;
+		public final int c;
+
+		public Constraint(Node u, Node v, int c) {
+			this.u = u;
+			this.v = v;
+			this.c = c;
+		}
+
+		public String toString() {
+			return (u == null ? "0" : u.id) + " - " + (v == null ? "0" : v.id) + " <= " + c;
+		}
+	}
+
+	private ArrayList<Constraint> constraints;
+
+	public TimingConstraints() {
+		constraints = new ArrayList<Constraint>();
+	}
+
+	/**
+	 * Adds the constraint t_u - t_v &lt;= c.
+	 * @param u - the first node or null for time step 0
+	 * @param v - the second node or null for time step 0
+	 * @param c - the maximum difference
+	 */
+	public void add(Node u, Node v, int c) {
+		if (u == null && v == null)
+			throw new IllegalArgumentException("At least one node of a timing constraint must be given.");
+		constraints.add(new Constraint(u, v, c));
+	}
+
+	/**
+	 * Reads the input and adds its constraints
+	 * 
+	 * @param input - Buffered reader pointing to the constraints file
+	 * @param fn - Filename of the constraints file (for error messages)
+	 * @param g - the graph containing the nodes
+	 * @throws IOException if the input cannot be read
+	 * @throws Dot_reader.ParseException if a line is malformed or names an
+	 *         unknown node
+	 */
+	private void lex(BufferedReader input, String fn, Graph g) throws IOException {
+		String line;
+		Pattern diff = Pattern.compile("\\s*(\\w+)\\s*-\\s*(\\w+)\\s*(<=|>=)\\s*(-?\\d+)\\s*;?\\s*");
+		Pattern bound = Pattern.compile("\\s*(\\w+)\\s*(<=|>=)\\s*(-?\\d+)\\s*;?\\s*");
+		Matcher m;
+		int ln = 0;
+		while ((line = input.readLine()) != null) {
+			ln++;
+			int i = line.indexOf("//");
+			if (i != -1) // Ignore comments
+				line = line.substring(0, i);
+			if (line.trim().isEmpty())
+				continue;
+			try {
+				m = diff.matcher(line);
+				if (m.matches()) {
+					Node u = node(g, m.group(1), fn, ln), v = node(g, m.group(2), fn, ln);
+					int c = Integer.parseInt(m.group(4));
+					if (m.group(3).equals("<="))
+						add(u, v, c);
+					else
+						add(v, u, -c);
+				} else if ((m = bound.matcher(line)).matches()) {
+					Node u = node(g, m.group(1), fn, ln);
+					int c = Integer.parseInt(m.group(3));
+					if (m.group(2).equals("<="))
+						add(u, null, c);
+					else
+						add(null, u, -c);
+				} else
+					throw new Dot_reader.ParseException(fn, ln, "Malformed timing constraint: " + line.trim());
+			} catch (NumberFormatException e) {
+				throw new Dot_reader.ParseException(fn, ln, "Constant out of range: " + line.trim());
+			}
+		}
+	}
+
+	private Node node(Graph g, String id, String fn, int ln) {
+		Node n = g.get(new Node(id));
+		if (n == null)
+			throw new Dot_reader.ParseException(fn, ln, "Unknown node " + id + " in timing constraint");
+		return n;
+	}
+
+	/**
+	 * Parses the file supplied and adds its constraints.
+	 * 
+	 * @param fn - Filename of the constraints file
+	 * @param g - the graph containing the nodes
+	 * @throws IOException if the file cannot be read
+	 * @throws Dot_reader.ParseException if a line is malformed or names an
+	 *         unknown node
+	 */
+	public void parse(String fn, Graph g) throws IOException {
+		try (BufferedReader file_reader = new BufferedReader(new FileReader(fn))) {
+			lex(file_reader, fn, g);
+		}
+	}
+
+	/**
+	 * @return the number of constraints
+	 */
+	public int size() {
+		return constraints.size();
+	}
+
+	public Iterator<Constraint> iterator() {
+		return constraints.iterator();
+	}
+}
@@ -0,0 +1,129 @@
+package scheduler.sdcutil;
+
+/**
+ * The progress of an annealing chain, as seen by its {@link CoolingSchedule}
+ * and {@link TerminationPolicy}. Counts the Metropolis steps of the whole run
+ * and of the current sweep, i.e. the steps at the current temperature.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class AnnealingStatistics {
+	private long iterations, accepted, sweepIterations, sweepAccepted, lastImprovement;
+	private double cost, bestCost = Double.POSITIVE_INFINITY;
+
+	/**
+	 * Starts the statistics with the cost of the initial configuration.
+	 */
+	public void start(double cost) {
+		iterations = accepted = sweepIterations = sweepAccepted = lastImprovement = 0;
+		this.cost = bestCost = cost;
+	}
+
+	/**
+	 * Starts a new sweep.
+	 */
+	public void sweep() {
+		sweepIterations = sweepAccepted = 0;
+	}
+
+	/**
+	 * Records a Metropolis step.
+	 *
+	 * @param accept Whether the move has been accepted.
+	 * @param cost The cost of the current configuration after the step.
+	 */
+	public void step(boolean accept, double cost) {
+		iterations++;
+		sweepIterations++;
+		if (accept) {
+			accepted++;
+			sweepAccepted++;
+		}
+		this.cost = cost;
+		if (cost < bestCost - 1e-9)
+			lastImprovement = iterations;
+		if (cost < bestCost)
+			bestCost = cost;
+	}
+
+	/**
+	 * Records a round of several chains (e.g. of parallel tempering), which is
+	 * treated as one sweep.
+	 *
+	 * @param iterations The number of steps of all chains so far.
+	 * @param accepted The number of accepted steps of all chains so far.
+	 * @param cost The lowest cost of the current configurations.
+	 * @param bestCost The lowest cost of all chains so far.
+	 */
+	public void round(long iterations, long accepted, double cost, double bestCost) {
+		sweepIterations = iterations - this.iterations;
+		sweepAccepted = accepted - this.accepted;
+		this.iterations = iterations;
+		this.accepted = accepted;
+		this.cost = cost;
+		if (bestCost < this.bestCost - 1e-9)
+			lastImprovement = iterations;
+		if (bestCost < this.bestCost)
+			this.bestCost = bestCost;
+	}
+
+	/**
+	 * @return The number of steps so far.
+	 */
+	public long iterations() {
+		return iterations;
+	}
+
+	/**
+	 * @return The number of accepted steps so far.
+	 */
+	public long accepted() {
+		return accepted;
+	}
+
+	/**
+	 * @return The number of steps of the current sweep.
+	 */
+	public long sweepIterations() {
+		return sweepIterations;
+	}
+
+	/**
+	 * @return The ratio of accepted steps, whereas the initial configuration
+	 *         counts as an accepted step.
+	 */
+	public double acceptanceRatio() {
+		return (accepted + 1.0) / (iterations + 1.0);
+	}
+
+	/**
+	 * @return The ratio of accepted steps in the current sweep or 1, if it has
+	 *         none yet.
+	 */
+	public double sweepAcceptanceRatio() {
+		return sweepIterations == 0 ? 1 : (double) sweepAccepted / sweepIterations;
+	}
+
+	/**
+	 * @return The cost of the current configuration.
+	 */
+	public double cost() {
+		return cost;
+	}
+
+	/**
+	 * @return The lowest cost so far.
+	 */
+	public double bestCost() {
+		return bestCost;
+	}
+
+	/**
+	 * @return The step at which the lowest cost was last improved (0 for the
+	 *         initial configuration).
+	 */
+	public long lastImprovement() {
+		return lastImprovement;
+	}
+}
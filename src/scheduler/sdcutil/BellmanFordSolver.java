@@ -0,0 +1,280 @@
+package scheduler.sdcutil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import scheduler.Node;
+import scheduler.TimingConstraints;
+import scheduler.TimingConstraints.Constraint;
+
+/**
+ * Solves a general system of difference constraints consisting of the flow
+ * dependencies, the resource constraints of the node list and arbitrary
+ * {@link TimingConstraints}. The earliest start times are the longest paths in
+ * the constraint graph, which are found by a queue based Bellman-Ford (SPFA).
+ * The system is infeasible if the graph contains a cycle of positive length,
+ * which is detected early by checking the graph of the tight constraints for
+ * cycles. <br>
+ * <br>
+ * After a shove, only the nodes whose tight constraint has been removed (and
+ * the nodes depending on them) are reset, while new constraints are relaxed
+ * from the previous solution, so most steps only touch a few nodes.
+ * 
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class BellmanFordSolver extends IncrementalSolver {
+	private final int PARENT;
+
+	private int[][] uOut, uOutW, uIn, uInW; // timing constraints as edges of the constraint graph.
+	private int[] release, deadline;
+	private int[] parent; // the variable whose constraint determines the start time (or -1).
+
+	private int[] affected, seeds, queue, mark;
+	private int affectedSize, seedSize, qHead, qSize, markId;
+	private boolean[] inQueue, reset;
+
+	public BellmanFordSolver(HashMap<Node, Integer> vars, TimingConstraints timing) {
+		super(vars, timing);
+		int n = nodes.length;
+		release = new int[n];
+		deadline = new int[n];
+		Arrays.fill(deadline, Integer.MAX_VALUE);
+		int[] outs = new int[n], ins = new int[n];
+		ArrayList<int[]> edges = new ArrayList<>();
+		if (timing != null)
+			for (Constraint c : timing) {
+				// t_u - t_v <= c is the edge u -> v with weight -c
+				if (c.u == null)
+					release[vars.get(c.v)] = Math.max(release[vars.get(c.v)], -c.c);
+				else if (c.v == null)
+					deadline[vars.get(c.u)] = Math.min(deadline[vars.get(c.u)], c.c);
+				else {
+					int u = vars.get(c.u), v = vars.get(c.v);
+					edges.add(new int[] { u, v, -c.c });
+					outs[u]++;
+					ins[v]++;
+				}
+			}
+		uOut = new int[n][];
+		uOutW = new int[n][];
+		uIn = new int[n][];
+		uInW = new int[n][];
+		for (int v = 0; v < n; v++) {
+			uOut[v] = new int[outs[v]];
+			uOutW[v] = new int[outs[v]];
+			uIn[v] = new int[ins[v]];
+			uInW[v] = new int[ins[v]];
+		}
+		for (int[] e : edges) {
+			int u = e[0], v = e[1];
+			uOutW[u][--outs[u]] = e[2];
+			uOut[u][outs[u]] = v;
+			uInW[v][--ins[v]] = e[2];
+			uIn[v][ins[v]] = u;
+		}
+
+		parent = new int[n];
+		PARENT = register(parent);
+		affected = new int[n];
+		seeds = new int[n];
+		queue = new int[n];
+		mark = new int[n];
+		inQueue = new boolean[n];
+		reset = new boolean[n];
+	}
+
+	@Override
+	protected int[] solveAll(SDCNodeList list) {
+		super.solveAll(list);
+		// the longest paths of the acyclic part are lower bounds; determine the tight
+		// constraints and relax the timing constraints from there
+		int n = nodes.length;
+		for (int v = 0; v < n; v++) {
+			parent[v] = -1;
+			for (int p : preds[v])
+				if (start[p] + delay[p] == start[v])
+					parent[v] = p;
+			if (resPred[v] != -1 && start[resPred[v]] + delay[resPred[v]] == start[v])
+				parent[v] = resPred[v];
+			if (start[v] == 0)
+				parent[v] = -1;
+		}
+		qHead = qSize = 0;
+		for (int v = 0; v < n; v++) {
+			if (release[v] > start[v]) {
+				start[v] = release[v];
+				parent[v] = -1;
+			}
+			enqueue(v);
+		}
+		boolean feasible = relax();
+		clearLog();
+		if (!feasible) {
+			invalidate();
+			return null;
+		}
+		return start;
+	}
+
+	@Override
+	protected void touch(int v) {
+	}
+
+	@Override
+	protected void resPredChanged(int v, int old) {
+		if (old != -1 && parent[v] == old) {
+			if (!reset[v]) {
+				reset[v] = true;
+				affected[affectedSize++] = v;
+			}
+		} else if (resPred[v] != -1)
+			seeds[seedSize++] = v;
+	}
+
+	@Override
+	protected boolean propagate() {
+		// collect all nodes depending on a removed constraint
+		for (int i = 0; i < affectedSize; i++) {
+			int u = affected[i];
+			for (int s : succs[u])
+				addAffected(u, s);
+			if (resSucc[u] != -1)
+				addAffected(u, resSucc[u]);
+			for (int s : uOut[u])
+				addAffected(u, s);
+		}
+
+		// reset them to the constraints from unaffected nodes
+		qHead = qSize = 0;
+		for (int i = 0; i < affectedSize; i++) {
+			int v = affected[i], t = release[v], p = -1;
+			for (int u : preds[v])
+				if (!reset[u] && start[u] + delay[u] > t) {
+					t = start[u] + delay[u];
+					p = u;
+				}
+			int u = resPred[v];
+			if (u != -1 && !reset[u] && start[u] + delay[u] > t) {
+				t = start[u] + delay[u];
+				p = u;
+			}
+			for (int j = 0; j < uIn[v].length; j++) {
+				u = uIn[v][j];
+				if (!reset[u] && start[u] + uInW[v][j] > t) {
+					t = start[u] + uInW[v][j];
+					p = u;
+				}
+			}
+			set(START, v, t);
+			set(PARENT, v, p);
+		}
+		for (int i = 0; i < affectedSize; i++) {
+			reset[affected[i]] = false;
+			enqueue(affected[i]);
+		}
+		affectedSize = 0;
+
+		// relax the new resource constraints
+		for (int i = 0; i < seedSize; i++) {
+			int v = seeds[i], u = resPred[v];
+			if (u != -1)
+				update(u, v, start[u] + delay[u]);
+		}
+		seedSize = 0;
+		return relax();
+	}
+
+	private void addAffected(int u, int v) {
+		if (parent[v] == u && !reset[v]) {
+			reset[v] = true;
+			affected[affectedSize++] = v;
+		}
+	}
+
+	/**
+	 * Relaxes all constraints starting at queued nodes until no start time changes.
+	 * 
+	 * @return False, if a cycle of positive length or a violated deadline has been
+	 *         found.
+	 */
+	private boolean relax() {
+		int n = nodes.length, relaxations = 0, check = n;
+		while (qSize > 0) {
+			int u = queue[qHead];
+			qHead = (qHead + 1) % n;
+			qSize--;
+			inQueue[u] = false;
+			if (start[u] > deadline[u]) {
+				clearQueue();
+				return false;
+			}
+			int t = start[u] + delay[u];
+			for (int s : succs[u])
+				relaxations += update(u, s, t);
+			if (resSucc[u] != -1)
+				relaxations += update(u, resSucc[u], t);
+			for (int j = 0; j < uOut[u].length; j++)
+				relaxations += update(u, uOut[u][j], start[u] + uOutW[u][j]);
+			if (relaxations > check) {
+				if (hasParentCycle()) {
+					clearQueue();
+					return false;
+				}
+				check += n;
+			}
+		}
+		return true;
+	}
+
+	private int update(int u, int v, int t) {
+		if (t <= start[v])
+			return 0;
+		set(START, v, t);
+		set(PARENT, v, u);
+		enqueue(v);
+		return 1;
+	}
+
+	private void enqueue(int v) {
+		if (inQueue[v])
+			return;
+		inQueue[v] = true;
+		queue[(qHead + qSize++) % queue.length] = v;
+	}
+
+	private void clearQueue() {
+		while (qSize > 0) {
+			inQueue[queue[qHead]] = false;
+			qHead = (qHead + 1) % queue.length;
+			qSize--;
+		}
+	}
+
+	/**
+	 * Checks whether the tight constraints form a cycle, which means that the
+	 * constraint graph contains a cycle of positive length.
+	 */
+	private boolean hasParentCycle() {
+		int n = nodes.length;
+		if (markId > Integer.MAX_VALUE - n - 1) {
+			Arrays.fill(mark, 0);
+			markId = 0;
+		}
+		int base = markId;
+		for (int v = 0; v < n; v++) {
+			if (mark[v] > base)
+				continue;
+			int id = ++markId, u = v;
+			// walk up until the time step 0 or a node of a previous walk is reached
+			while (u != -1 && mark[u] <= base) {
+				mark[u] = id;
+				u = parent[u];
+			}
+			if (u != -1 && mark[u] == id)
+				return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,62 @@
+package scheduler.sdcutil;
+
+import java.util.Random;
+
+import scheduler.Schedule;
+
+/**
+ * Moves a random node together with its dependent chain, i.e. the consecutive
+ * nodes after it which depend on it (or before it which it depends on), by up
+ * to MAX_DISTANCE positions. A distance of 1 is a shove, larger distances
+ * reach orders which would need several shoves through worse orders.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class ChainMoves extends MoveGenerator {
+	private static final int MAX_DISTANCE = 8;
+
+	@Override
+	public Move generate(SDCNodeList list, Schedule current, Random random) {
+		for (int k = 0; k < ATTEMPTS; k++) {
+			int i = random.nextInt(list.length);
+			Move move = random.nextBoolean() ? right(list, i, random) : left(list, i, random);
+			if (move != null)
+				return move;
+		}
+		return new ShoveMoves().generate(list, current, random);
+	}
+
+	/**
+	 * Moves the node at i and the following nodes which depend on it to the
+	 * right. The nodes passed must not depend on the node at i, then they don't
+	 * depend on any node of the chain either.
+	 */
+	private static Move right(SDCNodeList list, int i, Random random) {
+		int e = i, d = 0;
+		while (e + 1 < list.length && list.reaches(i, e + 1))
+			e++;
+		while (d < MAX_DISTANCE && e + d + 1 < list.length && !list.reaches(i, e + d + 1))
+			d++;
+		if (d == 0)
+			return null;
+		Move move = new Move(i, e - i + 1, i + 1 + random.nextInt(d));
+		return list.move(move.from, move.count, move.to) ? move : null;
+	}
+
+	/**
+	 * Moves the node at i and the preceding nodes which it depends on to the
+	 * left.
+	 */
+	private static Move left(SDCNodeList list, int i, Random random) {
+		int s = i, d = 0;
+		while (s > 0 && list.reaches(s - 1, i))
+			s--;
+		while (d < MAX_DISTANCE && s - d > 0 && !list.reaches(s - d - 1, i))
+			d++;
+		if (d == 0)
+			return null;
+		Move move = new Move(s, i - s + 1, s - 1 - random.nextInt(d));
+		return list.move(move.from, move.count, move.to) ? move : null;
+	}
+}
@@ -0,0 +1,51 @@
+package scheduler.sdcutil;
+
+/**
+ * The available cooling schedules of the SASDC scheduler.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public enum Cooling {
+	DEFAULT("default"),
+	LAM("lam"),
+	EQUILIBRIUM("equilibrium");
+
+	/**
+	 * Name of this cooling schedule (as used on the command line)
+	 */
+	public final String name;
+
+	private Cooling(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Creates a new cooling schedule of this type.
+	 *
+	 * @return The cooling schedule.
+	 */
+	public CoolingSchedule create() {
+		switch (this) {
+		case LAM:
+			return new LamCooling();
+		case EQUILIBRIUM:
+			return new EquilibriumCooling();
+		default:
+			return new DefaultCooling();
+		}
+	}
+
+	/**
+	 * Get the cooling schedule for the given name.
+	 *
+	 * @param name - the name of the cooling schedule
+	 * @return the cooling schedule. Null if none was found
+	 */
+	public static Cooling getCooling(String name) {
+		for (Cooling c : values())
+			if (c.name.equalsIgnoreCase(name))
+				return c;
+		return null;
+	}
+}
@@ -0,0 +1,89 @@
+package scheduler.sdcutil;
+
+/**
+ * Controls the temperature of simulated annealing: the annealing runs sweeps
+ * of Metropolis steps at a fixed temperature and multiplies the temperature by
+ * {@link #factor(AnnealingStatistics)} after each sweep. A schedule keeps state
+ * of the current run, so each run needs its own instance.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public abstract class CoolingSchedule {
+
+	/**
+	 * Gets the initial temperature and starts a new run. By default, this is
+	 * 20 times the standard deviation of the costs of the initial random walk.
+	 *
+	 * @param cost The costs of the initial random walk.
+	 */
+	public double initialTemperature(double[] cost) {
+		return 20 * stdDeviation(cost);
+	}
+
+	/**
+	 * Gets the number of steps of each sweep. By default, this is quality *
+	 * n^(4/3).
+	 *
+	 * @param n The number of nodes.
+	 * @param quality The quality in range 1 &lt;= quality &lt;= 10.
+	 */
+	public int sweepLength(int n, int quality) {
+		return (int) Math.ceil(quality * Math.pow(n, 4.0 / 3));
+	}
+
+	/**
+	 * Is called after each step of a sweep.
+	 *
+	 * @return Whether the chain reached equilibrium at the current temperature,
+	 *         which ends the sweep early. False by default.
+	 */
+	public boolean equilibrium(AnnealingStatistics s) {
+		return false;
+	}
+
+	/**
+	 * Is called after each sweep.
+	 *
+	 * @return The factor to update the temperature.
+	 */
+	public abstract double factor(AnnealingStatistics s);
+
+	/**
+	 * Gets the termination policy this schedule is designed for, which is used
+	 * if none is given. Is called after {@link #sweepLength(int, int)}. By
+	 * default, the annealing ends once at most 12% of the steps have been
+	 * accepted.
+	 */
+	public TerminationPolicy termination() {
+		return new TerminationPolicy.Acceptance(.12);
+	}
+
+	/**
+	 * Calculates the standard deviation of the given values. See:
+	 * {@link https://stackoverflow.com/questions/7988486/how-do-you-calculate-the-variance-median-and-standard-deviation-in-c-or-java}
+	 * 
+	 * Infinite values (infeasible configurations) are ignored.
+	 * 
+	 * @param vals The values.
+	 */
+	public static double stdDeviation(double[] vals) {
+		double mean = 0;
+		int n = 0;
+		for (double d : vals)
+			if (!Double.isInfinite(d)) {
+				mean += d;
+				n++;
+			}
+		if (n == 0)
+			return 0;
+		mean = mean / n;
+
+		double tmp = 0;
+		for (double d : vals)
+			if (!Double.isInfinite(d))
+				tmp += (d - mean) * (d - mean);
+
+		return Math.sqrt(tmp / n);
+	}
+}
@@ -0,0 +1,72 @@
+package scheduler.sdcutil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of the costs of evaluated configurations, keyed by the hash
+ * of their resource constraints (see {@link SDCNodeList#hash()}). The least
+ * recently used entry is evicted when the cache is full. Not thread-safe.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class CostCache {
+	private final LinkedHashMap<Long, Double> costs;
+	private long hits, misses;
+
+	/**
+	 * @param capacity The maximum number of entries.
+	 */
+	public CostCache(final int capacity) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("The capacity must be positive.");
+		costs = new LinkedHashMap<Long, Double>(16, .75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Double> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Looks up the cost of a configuration and counts a hit or miss.
+	 *
+	 * @param hash The hash of the configuration.
+	 * @return The cost or null, if it is not cached.
+	 */
+	public Double get(long hash) {
+		Double cost = costs.get(hash);
+		if (cost == null)
+			misses++;
+		else
+			hits++;
+		return cost;
+	}
+
+	/**
+	 * Adds the cost of a configuration.
+	 *
+	 * @param hash The hash of the configuration.
+	 * @param cost The cost (infinite if infeasible).
+	 */
+	public void put(long hash, double cost) {
+		costs.put(hash, cost);
+	}
+
+	/**
+	 * @return The number of lookups which found the cost.
+	 */
+	public long hits() {
+		return hits;
+	}
+
+	/**
+	 * @return The number of lookups which did not find the cost.
+	 */
+	public long misses() {
+		return misses;
+	}
+}
@@ -0,0 +1,25 @@
+package scheduler.sdcutil;
+
+/**
+ * The geometric schedule of SASDC: sweeps of quality * n^(4/3) steps and a
+ * temperature factor depending on the ratio of accepted steps. Ends once at
+ * most 12% of the steps have been accepted.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class DefaultCooling extends CoolingSchedule {
+
+	@Override
+	public double factor(AnnealingStatistics s) {
+		double ar = s.acceptanceRatio();
+		if (ar > .96)
+			return .5;
+		else if (ar > .8)
+			return .9;
+		else if (ar > .15)
+			return .95;
+		else
+			return .8;
+	}
+}
@@ -0,0 +1,59 @@
+package scheduler.sdcutil;
+
+/**
+ * The {@link DefaultCooling} schedule, but a sweep ends early once the chain
+ * reached equilibrium: The costs of a sweep are split into blocks of n (at
+ * least 100) steps and the sweep ends, if the mean and standard deviation of
+ * the costs of a block differ by at most 10% of the standard deviation from
+ * the previous block. As short sweeps may keep accepting moves without cost
+ * change, the annealing also ends once the lowest cost has not been improved
+ * for quality * n^(4/3) steps.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class EquilibriumCooling extends DefaultCooling {
+	private static final double TOLERANCE = .1;
+
+	private int length; // the number of steps of a sweep.
+	private int block; // the number of steps of a block.
+	private int count; // the finite costs in the current block and their sums.
+	private double sum, sumSquares;
+	private double mean = Double.NaN, sd; // of the previous block.
+
+	@Override
+	public int sweepLength(int n, int quality) {
+		block = Math.max(100, n);
+		return length = super.sweepLength(n, quality);
+	}
+
+	@Override
+	public boolean equilibrium(AnnealingStatistics s) {
+		if (s.sweepIterations() == 1) {
+			count = 0;
+			sum = sumSquares = 0;
+			mean = Double.NaN;
+		}
+		if (!Double.isInfinite(s.cost())) {
+			count++;
+			sum += s.cost();
+			sumSquares += s.cost() * s.cost();
+		}
+		if (s.sweepIterations() % block != 0 || count == 0)
+			return false;
+
+		double m = sum / count, d = Math.sqrt(Math.max(0, sumSquares / count - m * m));
+		double tolerance = TOLERANCE * Math.max(d, sd);
+		boolean stable = Math.abs(m - mean) <= tolerance && Math.abs(d - sd) <= tolerance;
+		mean = m;
+		sd = d;
+		count = 0;
+		sum = sumSquares = 0;
+		return stable;
+	}
+
+	@Override
+	public TerminationPolicy termination() {
+		return super.termination().or(new TerminationPolicy.Stall(length));
+	}
+}
@@ -0,0 +1,280 @@
+package scheduler.sdcutil;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Set;
+
+import scheduler.Node;
+import scheduler.TimingConstraints;
+
+/**
+ * Solves the SDC like {@link LongestPathSolver}, but keeps the solution between
+ * the calls. When the node list differs from the last solved order by a single
+ * shove, only the resource constraints reported by the list
+ * ({@link SDCNodeList#addedConstraints()} and
+ * {@link SDCNodeList#removedConstraints()}) change. The start times of their
+ * nodes are recalculated and changes are propagated through the affected
+ * successors in list order, so the cost of a step scales with the size of the
+ * change rather than with the graph.
+ * All changes are logged, so a rejected shove can be undone cheaply with
+ * {@link #revert()}.
+ * 
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class IncrementalSolver extends LongestPathSolver {
+	protected static final int START = 0, PRED = 1, SUCC = 2, AT = 3, POS = 4;
+
+	protected int[][] succs; // variable indices of the flow successors of each variable.
+	protected int[] resSucc; // the variable succeeding each variable on its resource (or -1).
+	private int[] at, pos; // variable at each list position and position of each variable.
+	private int[][] state;
+
+	private boolean valid, undoable, failed;
+	private int stamp; // modification count of the list when it was solved last.
+
+	private int[] undo = new int[192]; // triples of (array, index, old value).
+	private int undoSize;
+
+	private int[] heap; // variables to update, ordered by their position.
+	private int heapSize;
+	private boolean[] queued;
+
+	public IncrementalSolver(HashMap<Node, Integer> vars, TimingConstraints timing) {
+		super(vars, timing);
+		succs = new int[nodes.length][];
+		for (int v = 0; v < nodes.length; v++) {
+			Set<Node> s = nodes[v].successors();
+			succs[v] = new int[s.size()];
+			int i = 0;
+			for (Node n : s)
+				succs[v][i++] = vars.get(n);
+		}
+		resSucc = new int[nodes.length];
+		at = new int[nodes.length];
+		pos = new int[nodes.length];
+		heap = new int[nodes.length];
+		queued = new boolean[nodes.length];
+		state = new int[][] { start, resPred, resSucc, at, pos };
+	}
+
+	@Override
+	public int[] solve(SDCNodeList list) {
+		if (!valid || failed || list.modifications() != stamp + 1)
+			return solveAll(list);
+
+		stamp = list.modifications();
+		undoSize = 0;
+		undoable = true;
+		int lo = list.changedFrom(), hi = list.changedTo();
+
+		// update the order within the shoved range
+		for (int i = lo; i <= hi; i++) {
+			int v = vars.get(list.get(i));
+			set(AT, i, v);
+			set(POS, v, i);
+		}
+
+		// update the changed resource constraints (a node which lost its resource
+		// predecessor without getting a new one has none anymore)
+		for (int i = 0; i < list.addedConstraints(); i++) {
+			int v = vars.get(list.addedTo(i));
+			setResPred(v, vars.get(list.addedFrom(i)));
+			touch(v);
+		}
+		for (int i = 0; i < list.removedConstraints(); i++) {
+			int v = vars.get(list.removedTo(i));
+			if (resPred[v] == vars.get(list.removedFrom(i))) {
+				setResPred(v, -1);
+				touch(v);
+			}
+		}
+
+		if (propagate())
+			return start;
+
+		// keep the last feasible state until the shove is reverted
+		rollback();
+		failed = true;
+		return null;
+	}
+
+	@Override
+	public void unchanged(SDCNodeList list) {
+		solve(list); // only updates the order
+	}
+
+	/**
+	 * Propagates the changes of the last shove through the constraint graph.
+	 * 
+	 * @return False, if the new order is infeasible.
+	 */
+	protected boolean propagate() {
+		// recalculate the touched nodes and their successors in list order
+		while (heapSize > 0) {
+			int v = pop(), t = 0;
+			for (int p : preds[v])
+				t = Math.max(t, start[p] + delay[p]);
+			if (resPred[v] != -1)
+				t = Math.max(t, start[resPred[v]] + delay[resPred[v]]);
+			if (t == start[v])
+				continue;
+			set(START, v, t);
+			for (int s : succs[v])
+				push(s);
+			if (resSucc[v] != -1)
+				push(resSucc[v]);
+		}
+		return true;
+	}
+
+	/**
+	 * Called for each node whose resource constraint might have changed by the
+	 * last shove.
+	 * 
+	 * @param v The variable of the node.
+	 */
+	protected void touch(int v) {
+		push(v);
+	}
+
+	/**
+	 * Called when the resource predecessor of a node has been replaced, before the
+	 * changes are propagated.
+	 * 
+	 * @param v The variable of the node.
+	 * @param old The variable of the previous resource predecessor (or -1).
+	 */
+	protected void resPredChanged(int v, int old) {
+	}
+
+	@Override
+	public void revert() {
+		if (!undoable) {
+			valid = false;
+			return;
+		}
+		rollback();
+		undoable = failed = false;
+		stamp++;
+	}
+
+	@Override
+	public void restored(SDCNodeList list) {
+		stamp = list.modifications(); // the state is still valid, but not undoable
+		undoable = false;
+		undoSize = 0;
+	}
+
+	private void rollback() {
+		while (undoSize > 0) {
+			undoSize -= 3;
+			state[undo[undoSize]][undo[undoSize + 1]] = undo[undoSize + 2];
+		}
+	}
+
+	/**
+	 * Solves the whole list from scratch and initializes the state for following
+	 * incremental updates.
+	 */
+	protected int[] solveAll(SDCNodeList list) {
+		super.solve(list);
+		Arrays.fill(resSucc, -1);
+		for (int i = 0; i < list.length; i++) {
+			int v = vars.get(list.get(i));
+			at[i] = v;
+			pos[v] = i;
+			if (resPred[v] != -1)
+				resSucc[resPred[v]] = v;
+		}
+		stamp = list.modifications();
+		valid = true;
+		undoable = failed = false;
+		undoSize = 0;
+		return start;
+	}
+
+	/**
+	 * Marks the state as invalid, so the next call to solve() starts from scratch.
+	 */
+	protected void invalidate() {
+		valid = false;
+		undoable = false;
+	}
+
+	/**
+	 * Discards the logged changes, i.e. they cannot be reverted anymore.
+	 */
+	protected void clearLog() {
+		undoSize = 0;
+	}
+
+	private void setResPred(int v, int p) {
+		int old = resPred[v];
+		if (old == p)
+			return;
+		if (old != -1 && resSucc[old] == v)
+			set(SUCC, old, -1);
+		set(PRED, v, p);
+		if (p != -1)
+			set(SUCC, p, v);
+		resPredChanged(v, old);
+	}
+
+	/**
+	 * Adds an array to the state which is restored by revert().
+	 * 
+	 * @param array The array.
+	 * @return The id of the array for set().
+	 */
+	protected int register(int[] array) {
+		state = Arrays.copyOf(state, state.length + 1);
+		state[state.length - 1] = array;
+		return state.length - 1;
+	}
+
+	/**
+	 * Sets a value of the state and logs the old value for revert().
+	 */
+	protected void set(int array, int i, int value) {
+		if (undoSize + 3 > undo.length)
+			undo = Arrays.copyOf(undo, undo.length * 2);
+		undo[undoSize++] = array;
+		undo[undoSize++] = i;
+		undo[undoSize++] = state[array][i];
+		state[array][i] = value;
+	}
+
+	private void push(int v) {
+		if (queued[v])
+			return;
+		queued[v] = true;
+		int i = heapSize++;
+		while (i > 0) {
+			int parent = (i - 1) >> 1;
+			if (pos[heap[parent]] <= pos[v])
+				break;
+			heap[i] = heap[parent];
+			i = parent;
+		}
+		heap[i] = v;
+	}
+
+	private int pop() {
+		int top = heap[0], v = heap[--heapSize], i = 0;
+		while (true) {
+			int c = 2 * i + 1;
+			if (c >= heapSize)
+				break;
+			if (c + 1 < heapSize && pos[heap[c + 1]] < pos[heap[c]])
+				c++;
+			if (pos[heap[c]] >= pos[v])
+				break;
+			heap[i] = heap[c];
+			i = c;
+		}
+		heap[i] = v;
+		queued[top] = false;
+		return top;
+	}
+}
@@ -0,0 +1,91 @@
+package scheduler.sdcutil;
+
+import java.util.HashMap;
+
+import lpsolve.LpSolve;
+import lpsolve.LpSolveException;
+import scheduler.Node;
+import scheduler.TimingConstraints;
+import scpsolver.lpsolver.SolverFactory;
+
+/**
+ * Solves the SDC as linear program using the lpsolve library. <br>
+ * <br>
+ * The bounding, flow and timing constraints are set up once. Each solve works
+ * on a copy of this base model, which gets the resource constraints of the list
+ * and is deleted afterwards (see {@link NativeLPSolver} for an engine which
+ * keeps its model). All constraints are difference constraints with at most
+ * two non-zero coefficients, so they are stored as sparse rows and the model
+ * has a size of O(V+E). Infeasible orders are detected by the return status of
+ * lpsolve.
+ * 
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class LPSolver extends SDCSolver {
+	static {
+		SolverFactory.newDefault(); // loads the native library
+	}
+
+	private LpSolve base;
+	private int[] start;
+	private double[] result;
+
+	public LPSolver(HashMap<Node, Integer> vars, TimingConstraints timing) {
+		super(vars, timing);
+		start = new int[nodes.length];
+		result = new double[nodes.length + 1];
+		try {
+			base = getBaseLP();
+		} catch (LpSolveException e) {
+			throw new RuntimeException("Could not set up the linear program.", e);
+		}
+	}
+
+	@Override
+	public int[] solve(SDCNodeList list) {
+		LpSolve lp;
+		try {
+			synchronized (LpSolve.class) { // LpSolve registers its models in a static map
+				lp = base.copyLp();
+			}
+		} catch (LpSolveException e) {
+			throw new RuntimeException("Could not copy the linear program.", e);
+		}
+		try {
+			for (int i = 0; i < list.length; i++) {
+				Node n1 = list.get(i), n2 = list.nextOfType(n1.getRT(), i + 1);
+				if (n2 == null)
+					continue;
+				// t_n1 - t_n2 <= -delay(n1)
+				addRow(lp, vars.get(n1) + 1, vars.get(n2) + 1, -n1.getDelay());
+			}
+			int ret = lp.solve();
+			if (ret != LpSolve.OPTIMAL && ret != LpSolve.SUBOPTIMAL)
+				return null;
+			lp.getVariables(result);
+		} catch (LpSolveException e) {
+			throw new RuntimeException("Could not solve the linear program.", e);
+		} finally {
+			synchronized (LpSolve.class) {
+				lp.deleteLp();
+			}
+		}
+		for (int i = 0; i < start.length; i++)
+			start[i] = (int) Math.ceil(result[i] - 1e-9);
+		return start;
+	}
+
+	@Override
+	public void unchanged(SDCNodeList list) {
+	}
+
+	@Override
+	public void release() {
+		if (base != null)
+			synchronized (LpSolve.class) {
+				base.deleteLp();
+			}
+		base = null;
+	}
+}
@@ -0,0 +1,48 @@
+package scheduler.sdcutil;
+
+/**
+ * An adaptive schedule after Lam and Delosme: The temperature is steered
+ * towards a target acceptance ratio which starts at 1, stays at 44% for most
+ * of the run and drops towards 0 in the end. The run has a fixed budget of 5 *
+ * quality * n^(4/3) steps, which is divided into short sweeps. After each of
+ * them, the temperature is lowered, if the acceptance ratio was above the
+ * target, and raised otherwise.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class LamCooling extends CoolingSchedule {
+	private static final int SWEEPS = 100; // the number of temperature updates.
+	private static final double FACTOR = .9;
+
+	private long budget;
+
+	@Override
+	public int sweepLength(int n, int quality) {
+		budget = 5L * super.sweepLength(n, quality);
+		return (int) Math.max(10, budget / SWEEPS);
+	}
+
+	@Override
+	public double factor(AnnealingStatistics s) {
+		return s.sweepAcceptanceRatio() > target((double) s.iterations() / budget) ? FACTOR : 1 / FACTOR;
+	}
+
+	/**
+	 * @param p The progress of the run in range 0 &lt;= p &lt;= 1.
+	 * @return The target acceptance ratio.
+	 */
+	private static double target(double p) {
+		if (p < .15)
+			return .44 + .56 * Math.pow(560, -p / .15);
+		else if (p < .65)
+			return .44;
+		else
+			return .44 * Math.pow(440, -(p - .65) / .35);
+	}
+
+	@Override
+	public TerminationPolicy termination() {
+		return new TerminationPolicy.Budget(budget);
+	}
+}
@@ -0,0 +1,75 @@
+package scheduler.sdcutil;
+
+import java.util.HashMap;
+import java.util.Set;
+
+import scheduler.Node;
+import scheduler.TimingConstraints;
+
+/**
+ * Solves the SDC by calculating the earliest start times as longest paths in
+ * the constraint graph. <br>
+ * <br>
+ * The flow dependencies and the resource constraints (each node precedes the
+ * next node of its resource according to {@link SDCNodeList#nextOfType}) both
+ * point in the direction of the list order, so the constraint graph is acyclic
+ * and a single pass over the list in O(V+E) yields the optimal solution.
+ * 
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class LongestPathSolver extends SDCSolver {
+	protected int[][] preds; // variable indices of the flow predecessors of each variable.
+	protected int[] delay;
+	protected int[] start;
+	protected int[] resPred; // the variable preceding each variable on its resource (or -1).
+
+	public LongestPathSolver(HashMap<Node, Integer> vars, TimingConstraints timing) {
+		super(vars, timing);
+		preds = new int[nodes.length][];
+		delay = new int[nodes.length];
+		start = new int[nodes.length];
+		resPred = new int[nodes.length];
+		for (int v = 0; v < nodes.length; v++) {
+			Set<Node> p = nodes[v].predecessors();
+			preds[v] = new int[p.size()];
+			int i = 0;
+			for (Node n : p)
+				preds[v][i++] = vars.get(n);
+			delay[v] = nodes[v].getDelay();
+		}
+	}
+
+	@Override
+	public int[] solve(SDCNodeList list) {
+		// the last nodes of each resource, stored as ring buffer. When the buffer is
+		// full, the oldest entry is the node which has the current one as next node of
+		// its type.
+		int[][] last = new int[list.resourceClasses()][];
+		int[] seen = new int[last.length];
+
+		for (int i = 0; i < list.length; i++) {
+			Node n = list.get(i);
+			int v = vars.get(n), c = list.resourceClass(n.getRT()), t = 0;
+			for (int p : preds[v])
+				t = Math.max(t, start[p] + delay[p]);
+
+			if (last[c] == null)
+				last[c] = new int[list.resourceCount(n.getRT())];
+			int[] ring = last[c];
+			int slot = seen[c]++ % ring.length;
+			resPred[v] = -1;
+			if (seen[c] > ring.length) {
+				int r = resPred[v] = ring[slot];
+				t = Math.max(t, start[r] + delay[r]);
+			}
+			ring[slot] = v;
+			start[v] = t;
+		}
+		return start;
+	}
+
+	@Override
+	public void unchanged(SDCNodeList list) {
+	}
+}
@@ -0,0 +1,21 @@
+package scheduler.sdcutil;
+
+import java.util.Random;
+
+import scheduler.Schedule;
+
+/**
+ * Draws each move from one of the other neighbourhoods (shove, swap, chain and
+ * peak) with equal probability.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class MixedMoves extends MoveGenerator {
+	private final MoveGenerator[] generators = { new ShoveMoves(), new SwapMoves(), new ChainMoves(), new PeakMoves() };
+
+	@Override
+	public Move generate(SDCNodeList list, Schedule current, Random random) {
+		return generators[random.nextInt(generators.length)].generate(list, current, random);
+	}
+}
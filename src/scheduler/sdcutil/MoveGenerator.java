@@ -0,0 +1,93 @@
+package scheduler.sdcutil;
+
+import java.util.Random;
+
+import scheduler.Schedule;
+
+/**
+ * Draws the moves of the SASDC scheduler, i.e. defines the neighbourhood of an
+ * order of the nodes. Every move is a move of a block of consecutive nodes
+ * (see {@link SDCNodeList#move(int, int, int)}), so it can be applied to copies
+ * of the list (e.g. by speculative workers) and reverted by the list. A
+ * generator may keep state between the moves it draws, so each annealing chain
+ * creates its own (see {@link Neighbourhood#create()}).
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public abstract class MoveGenerator {
+	/**
+	 * A move of count nodes from position from to position to.
+	 */
+	public static final class Move {
+		public final int from, count, to;
+
+		public Move(int from, int count, int to) {
+			this.from = from;
+			this.count = count;
+			this.to = to;
+		}
+
+		@Override
+		public String toString() {
+			return count == 1 ? String.format("move %s to %s", from, to) : String.format("move %s..%s to %s", from, from + count - 1, to);
+		}
+	}
+
+	/**
+	 * The number of attempts to draw a move of the own kind before a random shove
+	 * is drawn instead (e.g. if no node can be swapped at all).
+	 */
+	protected static final int ATTEMPTS = 100;
+
+	/**
+	 * Draws a random move and applies it to the list.
+	 *
+	 * @param list The node list.
+	 * @param current The schedule of the current order (may be null, if it is
+	 *            unknown or infeasible).
+	 * @param random The random numbers.
+	 * @return The move.
+	 */
+	public abstract Move generate(SDCNodeList list, Schedule current, Random random);
+
+	/**
+	 * Applies a move, which has been drawn for a list of the same order.
+	 *
+	 * @param list The node list.
+	 * @param move The move.
+	 * @return True if the list has been changed.
+	 */
+	public boolean apply(SDCNodeList list, Move move) {
+		return list.move(move.from, move.count, move.to);
+	}
+
+	/**
+	 * Reverts the last move of the list.
+	 *
+	 * @param list The node list.
+	 */
+	public void revert(SDCNodeList list) {
+		list.revert();
+	}
+
+	/**
+	 * @param move A move drawn by this generator.
+	 * @return A description of the move (e.g. for logging).
+	 */
+	public String describe(Move move) {
+		return String.format("%s: %s", getClass().getSimpleName(), move);
+	}
+
+	/**
+	 * Shoves the node at position i (see {@link SDCNodeList#shoveLeft(int)} and
+	 * {@link SDCNodeList#shoveRight(int)}).
+	 *
+	 * @return The move or null, if the node cannot be shoved in this direction.
+	 */
+	protected static Move shove(SDCNodeList list, int i, boolean left) {
+		if (left)
+			return list.shoveLeft(i) ? new Move(list.changedFrom(), 1, i) : null;
+		return list.shoveRight(i) ? new Move(list.changedTo(), 1, i) : null;
+	}
+}
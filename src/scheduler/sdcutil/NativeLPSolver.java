@@ -0,0 +1,214 @@
+package scheduler.sdcutil;
+
+import java.util.HashMap;
+
+import lpsolve.LpSolve;
+import lpsolve.LpSolveException;
+import scheduler.Node;
+import scheduler.TimingConstraints;
+import scpsolver.lpsolver.SolverFactory;
+
+/**
+ * Solves the SDC as linear program using the lpsolve library directly. <br>
+ * <br>
+ * Unlike {@link LPSolver}, the model is kept in native memory for the whole
+ * annealing. The number of resource constraints only depends on the number of
+ * nodes per resource, so the resource constraints of the list are stored in a
+ * fixed block of rows (ordered by the position of the later node) and only the
+ * rows whose nodes have changed since the last solve are rewritten. Each
+ * solve is warm-started from the optimal basis of the previous one (or of the
+ * accepted order after a revert), so it usually takes a few pivots only.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class NativeLPSolver extends SDCSolver {
+	static {
+		SolverFactory.newDefault(); // loads the native library
+	}
+
+	private LpSolve lp;
+	private int[] start;
+	private double[] result;
+
+	/**
+	 * Index of first resource constraint (1-based like all lpsolve rows).
+	 */
+	private int rc0;
+
+	/**
+	 * Variables of the resource constraints (from &rarr; to) as currently stored in
+	 * the model and as required by the list.
+	 */
+	private int[] rowFrom, rowTo, from, to;
+	private int rows = -1; // number of resource constraints, known after the first solve.
+
+	/**
+	 * The optimal basis of the last solve (start of the next solve) and the one
+	 * before it (restored by revert()).
+	 */
+	private int[] basis, previous;
+	private boolean warm, previousWarm; // whether the bases are valid.
+	private long iterations, lastIterations, solves;
+
+	public NativeLPSolver(HashMap<Node, Integer> vars, TimingConstraints timing) {
+		super(vars, timing);
+		start = new int[nodes.length];
+		result = new double[nodes.length + 1];
+		from = new int[nodes.length];
+		to = new int[nodes.length];
+		try {
+			lp = getBaseLP();
+		} catch (LpSolveException e) {
+			throw new RuntimeException("Could not set up the linear program.", e);
+		}
+		rc0 = lp.getNrows() + 1;
+	}
+
+	@Override
+	public int[] solve(SDCNodeList list) {
+		int n = resourceConstraints(list);
+		try {
+			if (rows == -1) {
+				for (int r = 0; r < n; r++)
+					addRow(from[r], to[r]);
+				rows = n;
+				rowFrom = from.clone();
+				rowTo = to.clone();
+			} else {
+				if (n != rows)
+					throw new IllegalStateException("The number of resource constraints has changed.");
+				for (int r = 0; r < n; r++)
+					if (rowFrom[r] != from[r] || rowTo[r] != to[r]) {
+						setRow(rc0 + r, rowFrom[r], rowTo[r], from[r], to[r]);
+						rowFrom[r] = from[r];
+						rowTo[r] = to[r];
+					}
+			}
+
+			if (basis == null) {
+				basis = new int[1 + lp.getNrows() + lp.getNcolumns()];
+				previous = new int[basis.length];
+			}
+			// start from the last optimal basis; the changed rows make it a hint
+			// only, lpsolve repairs it if it is not feasible anymore
+			System.arraycopy(basis, 0, previous, 0, basis.length);
+			previousWarm = warm;
+			if (warm)
+				lp.setBasis(basis, true);
+			int ret = lp.solve();
+			lastIterations = lp.getTotalIter();
+			iterations += lastIterations;
+			solves++;
+			if (ret != LpSolve.OPTIMAL && ret != LpSolve.SUBOPTIMAL)
+				return null;
+			lp.getBasis(basis, true);
+			warm = true;
+			lp.getVariables(result);
+		} catch (LpSolveException e) {
+			throw new RuntimeException("Could not solve the linear program.", e);
+		}
+		for (int i = 0; i < start.length; i++)
+			start[i] = (int) Math.ceil(result[i] - 1e-9);
+		return start;
+	}
+
+	/**
+	 * Keeps the basis, which is still optimal. The rows are brought to the new
+	 * order by the next solve.
+	 */
+	@Override
+	public void unchanged(SDCNodeList list) {
+		if (basis == null) {
+			solve(list);
+			return;
+		}
+		System.arraycopy(basis, 0, previous, 0, basis.length);
+		previousWarm = warm;
+	}
+
+	/**
+	 * Restores the basis of the accepted order for the next warm start.
+	 */
+	@Override
+	public void revert() {
+		int[] tmp = basis;
+		basis = previous;
+		previous = tmp;
+		boolean w = warm;
+		warm = previousWarm;
+		previousWarm = w;
+	}
+
+	@Override
+	public long iterations() {
+		return iterations;
+	}
+
+	@Override
+	public long solves() {
+		return solves;
+	}
+
+	@Override
+	public long lastIterations() {
+		return lastIterations;
+	}
+
+	@Override
+	public void release() {
+		if (lp != null)
+			synchronized (LpSolve.class) {
+				lp.deleteLp();
+			}
+		lp = null;
+	}
+
+	/**
+	 * Collects the resource constraints implied by the list order (each node
+	 * precedes the next node of its resource according to
+	 * {@link SDCNodeList#nextOfType}) into from/to.
+	 *
+	 * @return The number of resource constraints.
+	 */
+	private int resourceConstraints(SDCNodeList list) {
+		// ring buffers of the last nodes of each resource, see LongestPathSolver
+		int[][] last = new int[list.resourceClasses()][];
+		int[] seen = new int[last.length];
+		int n = 0;
+		for (int i = 0; i < list.length; i++) {
+			Node node = list.get(i);
+			int v = vars.get(node), c = list.resourceClass(node.getRT());
+			if (last[c] == null)
+				last[c] = new int[list.resourceCount(node.getRT())];
+			int[] ring = last[c];
+			int slot = seen[c]++ % ring.length;
+			if (seen[c] > ring.length) {
+				from[n] = ring[slot];
+				to[n++] = v;
+			}
+			ring[slot] = v;
+		}
+		return n;
+	}
+
+	/**
+	 * Adds t_u - t_v &lt;= -delay(u).
+	 */
+	private void addRow(int u, int v) throws LpSolveException {
+		addRow(lp, u + 1, v + 1, -nodes[u].getDelay());
+	}
+
+	/**
+	 * Replaces t_u0 - t_v0 in the given row by t_u - t_v &lt;= -delay(u). The
+	 * coefficients are changed one by one, because set_rowex of the bundled
+	 * lpsolve version corrupts the matrix when the columns of a row change.
+	 */
+	private void setRow(int r, int u0, int v0, int u, int v) throws LpSolveException {
+		lp.setMat(r, u0 + 1, 0);
+		lp.setMat(r, v0 + 1, 0);
+		lp.setMat(r, u + 1, 1);
+		lp.setMat(r, v + 1, -1);
+		lp.setRh(r, -nodes[u].getDelay());
+	}
+}
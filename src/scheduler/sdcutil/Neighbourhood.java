@@ -0,0 +1,57 @@
+package scheduler.sdcutil;
+
+/**
+ * The available move generators of the SASDC scheduler.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public enum Neighbourhood {
+	SHOVE("shove"),
+	SWAP("swap"),
+	CHAIN("chain"),
+	PEAK("peak"),
+	MIXED("mixed");
+
+	/**
+	 * Name of this neighbourhood (as used on the command line)
+	 */
+	public final String name;
+
+	private Neighbourhood(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Creates a new move generator of this type.
+	 *
+	 * @return The move generator.
+	 */
+	public MoveGenerator create() {
+		switch (this) {
+		case SWAP:
+			return new SwapMoves();
+		case CHAIN:
+			return new ChainMoves();
+		case PEAK:
+			return new PeakMoves();
+		case MIXED:
+			return new MixedMoves();
+		default:
+			return new ShoveMoves();
+		}
+	}
+
+	/**
+	 * Get the neighbourhood for the given name.
+	 *
+	 * @param name - the name of the neighbourhood
+	 * @return the neighbourhood. Null if none was found
+	 */
+	public static Neighbourhood getNeighbourhood(String name) {
+		for (Neighbourhood n : values())
+			if (n.name.equalsIgnoreCase(name))
+				return n;
+		return null;
+	}
+}
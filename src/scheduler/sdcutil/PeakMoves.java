@@ -0,0 +1,54 @@
+package scheduler.sdcutil;
+
+import java.util.List;
+import java.util.Random;
+
+import scheduler.CompactSchedule;
+import scheduler.Node;
+import scheduler.RT;
+import scheduler.Schedule;
+
+/**
+ * Moves a node which is scheduled at the peak of the most expensive resource
+ * type, i.e. at a time step which sets the cost. The node is swapped with a
+ * neighbour on its resource or shoved. Falls back to random shoves, if the
+ * schedule is unknown. The nodes at the peak are kept for the last schedule, so
+ * each chain needs its own generator.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class PeakMoves extends MoveGenerator {
+	private Schedule schedule; // the last schedule and the nodes at its peak.
+	private List<Node> peak;
+
+	@Override
+	public Move generate(SDCNodeList list, Schedule current, Random random) {
+		if (current != schedule) {
+			schedule = current;
+			peak = current instanceof CompactSchedule && ((CompactSchedule) current).compact() ? peak((CompactSchedule) current) : null;
+		}
+		for (int k = 0; peak != null && k < Math.min(ATTEMPTS, 2 * peak.size()); k++) {
+			int i = list.indexOf(peak.get(random.nextInt(peak.size())));
+			boolean next = random.nextBoolean();
+			Move move = random.nextBoolean() ? SwapMoves.swap(list, i, next) : shove(list, i, !next);
+			if (move != null)
+				return move;
+		}
+		return new ShoveMoves().generate(list, current, random);
+	}
+
+	/**
+	 * @return The nodes of the type with the highest cost which are scheduled at
+	 *         its peak or null, if there are none.
+	 */
+	private static List<Node> peak(CompactSchedule s) {
+		RT max = null;
+		for (RT rt : RT.values())
+			if (s.peak(rt) > 0 && (max == null || rt.weight * s.peak(rt) > max.weight * s.peak(max)))
+				max = rt;
+		if (max == null)
+			return null;
+		return s.nodes(max, s.peakStep(max));
+	}
+}
@@ -0,0 +1,71 @@
+package scheduler.sdcutil;
+
+import java.util.HashMap;
+
+import scheduler.Node;
+import scheduler.TimingConstraints;
+
+/**
+ * The available solvers for the SDC of the SASDC scheduler.
+ * 
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public enum SDCEngine {
+	LP("lp", true),
+	NATIVE_LP("nlp", true),
+	LONGEST_PATH("lpath", false),
+	INCREMENTAL("inc", false),
+	BELLMAN_FORD("bf", true);
+
+	/**
+	 * Name of this engine (as used on the command line)
+	 */
+	public final String name;
+
+	/**
+	 * Whether this engine supports timing constraints (which may result in a
+	 * cyclic constraint graph).
+	 */
+	public final boolean timing;
+
+	private SDCEngine(String name, boolean timing) {
+		this.name = name;
+		this.timing = timing;
+	}
+
+	/**
+	 * Creates a new solver of this type.
+	 * 
+	 * @param vars Maps each node to the index of its start time variable.
+	 * @param timing Additional timing constraints (may be null).
+	 * @return The solver.
+	 */
+	public SDCSolver create(HashMap<Node, Integer> vars, TimingConstraints timing) {
+		switch (this) {
+		case LP:
+			return new LPSolver(vars, timing);
+		case NATIVE_LP:
+			return new NativeLPSolver(vars, timing);
+		case INCREMENTAL:
+			return new IncrementalSolver(vars, timing);
+		case BELLMAN_FORD:
+			return new BellmanFordSolver(vars, timing);
+		default:
+			return new LongestPathSolver(vars, timing);
+		}
+	}
+
+	/**
+	 * Get the engine for the given name.
+	 * 
+	 * @param name - the name of the engine
+	 * @return the engine. Null if none was found
+	 */
+	public static SDCEngine getEngine(String name) {
+		for (SDCEngine e : values())
+			if (e.name.equalsIgnoreCase(name))
+				return e;
+		return null;
+	}
+}
@@ -1,15 +1,17 @@
 package scheduler.sdcutil;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import scheduler.CompactGraph;
 import scheduler.Graph;
 import scheduler.Node;
 import scheduler.RC;
 import scheduler.RT;
+import scheduler.Reachability;
 
 /**
  * An ordered list of nodes with support for the SASDC scheduler.
@@ -19,21 +21,114 @@ import scheduler.RT;
  */
 public class SDCNodeList {
 	public final int length;
-	private int shovePos, shoveCnt; // cnt +/- => left/right
+	// the last change rotated the nodes from changeLo to changeHi by changeShift
+	// positions to the right (see rotate()).
+	private int changeLo, changeHi, changeShift;
+	private int modCount; // number of changes of the order (moves and reverts).
 	private HashMap<RT, Set<RT>> rtSet; // maps types to a resource (which could contain more types).
 	private HashMap<RT, Integer> rtCount; // the number of resources compatible with certain type.
+	private HashMap<RT, Integer> rtClass; // maps types to a dense index of their resource.
+	private int classes;
+	private int[] typeClass; // resource index of each type (by ordinal), -1 if not required.
+	private int[] classCount; // the number of instances of each resource.
 	private Node[] list;
+	private Reachability reach;
+	private CompactGraph graph;
+	private int[] id, pos; // the index (in graph) of the node at each position and the position of each node.
+
+	// rank/select index: the positions of the nodes of each resource in ascending
+	// order and, for each position, the resource and the rank among these positions.
+	private int[][] members;
+	private int[] cls, rank;
+	private int[] next; // buffer for reindex().
+
+	// resource constraints removed and added by the last change as pairs (from, to),
+	// computed on demand for the modification count deltaMod.
+	private Node[] removed = new Node[16], added = new Node[16];
+	private int removedSize, addedSize, deltaMod;
+	private long deltaHash; // the keys of these pairs (see key()).
+
+	// hash of the resource constraints for the modification count hashMod and of
+	// the order before (for previousMod), which is restored by revert().
+	private long hash, previousHash;
+	private int hashMod = -1, previousMod = -1;
 
 	public SDCNodeList(RC constraints, Graph sg) {
 		this.length = sg.size();
+		this.reach = sg.reachability().fork();
 		preprocessResourceConstraints(constraints, sg);
 
+		// sort by depth (stable counting sort, nodes of the same depth keep the
+		// order of the graph like the former list sort did)
+		CompactGraph g = graph = sg.compact();
+		int[] first = new int[length + 1];
+		for (int v = 0; v < length; v++)
+			first[g.depth(v) + 1]++;
+		for (int d = 0; d < length; d++)
+			first[d + 1] += first[d];
 		list = new Node[length];
-		ArrayList<Node> ordered = new ArrayList<Node>();
-		for (Node node : sg)
-			ordered.add(node);
-		ordered.sort((n1, n2) -> n1.getDepth() - n2.getDepth());
-		ordered.toArray(list);
+		id = new int[length];
+		pos = new int[length];
+		for (int v = 0; v < length; v++) {
+			int i = first[g.depth(v)]++;
+			list[i] = g.node(v);
+			id[i] = v;
+			pos[v] = i;
+		}
+
+		cls = new int[length];
+		rank = new int[length];
+		int[] size = new int[classes];
+		for (int i = 0; i < length; i++)
+			size[cls[i] = typeClass[list[i].getRT().ordinal()]]++;
+		members = new int[classes][];
+		for (int c = 0; c < classes; c++)
+			members[c] = new int[size[c]];
+		next = new int[classes];
+		for (int i = 0; i < length; i++) {
+			rank[i] = next[cls[i]]++;
+			members[cls[i]][rank[i]] = i;
+		}
+	}
+
+	private SDCNodeList(SDCNodeList other) {
+		length = other.length;
+		changeLo = other.changeLo;
+		changeHi = other.changeHi;
+		changeShift = other.changeShift;
+		modCount = other.modCount;
+		deltaMod = -1;
+		hash = other.hash;
+		hashMod = other.hashMod;
+		previousHash = other.previousHash;
+		previousMod = other.previousMod;
+		rtSet = other.rtSet;
+		rtCount = other.rtCount;
+		rtClass = other.rtClass;
+		classes = other.classes;
+		typeClass = other.typeClass;
+		classCount = other.classCount;
+		list = other.list.clone();
+		reach = other.reach.fork();
+		graph = other.graph;
+		id = other.id.clone();
+		pos = other.pos.clone();
+		members = new int[classes][];
+		for (int c = 0; c < classes; c++)
+			members[c] = other.members[c].clone();
+		cls = other.cls.clone();
+		rank = other.rank.clone();
+		next = new int[classes];
+	}
+
+	/**
+	 * Creates an independent copy of this list with the same order (e.g. for
+	 * another thread).
+	 * 
+	 * @return The copy.
+	 */
+	public SDCNodeList copy() {
+		return new SDCNodeList(this);
 	}
 
 	/**
@@ -46,6 +141,8 @@ public class SDCNodeList {
 	private void preprocessResourceConstraints(RC rc, Graph sg) {
 		rtSet = new HashMap<>();
 		rtCount = new HashMap<>();
+		rtClass = new HashMap<>();
+		HashMap<Set<RT>, Integer> classIds = new HashMap<>();
 		Map<String, Set<RT>> allRes = rc.getAllRes();
 		HashSet<RT> required = new HashSet<>();
 		for (Node n : sg) { // find required node types
@@ -66,6 +163,81 @@ public class SDCNodeList {
 			} else
 				throw new RuntimeException(String.format("Resource constrataints do not contain a resource which is compatible with operation \"%s\".", rt.name));
 
+			Integer c = classIds.get(rtSet.get(rt));
+			if (c == null)
+				classIds.put(rtSet.get(rt), c = classIds.size());
+			rtClass.put(rt, c);
+		}
+		classes = classIds.size();
+		typeClass = new int[RT.values().length];
+		classCount = new int[classes];
+		Arrays.fill(typeClass, -1);
+		for (RT rt : required) {
+			typeClass[rt.ordinal()] = rtClass.get(rt);
+			classCount[rtClass.get(rt)] = rtCount.get(rt);
+		}
+	}
+
+	/**
+	 * Updates the rank/select index after the nodes between the positions lo and
+	 * hi have been rearranged (cls must already be updated). The nodes of each
+	 * resource within this range keep their block of ranks, only the assignment
+	 * to positions changes.
+	 */
+	private void reindex(int lo, int hi) {
+		for (int c = 0; c < classes; c++)
+			next[c] = lowerBound(members[c], lo);
+		for (int i = lo; i <= hi; i++) {
+			int c = cls[i];
+			rank[i] = next[c]++;
+			members[c][rank[i]] = i;
+		}
+	}
+
+	/**
+	 * @return The index of the first element of a &gt;= key.
+	 */
+	private static int lowerBound(int[] a, int key) {
+		int lo = 0, hi = a.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (a[mid] < key)
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Rotates the nodes from position lo to hi by shift positions to the right,
+	 * i.e. the node at i moves to lo + (i - lo + shift) % (hi - lo + 1). This is
+	 * the only change of the order, all moves and reverts are rotations.
+	 */
+	private void rotate(int lo, int hi, int shift) {
+		reverse(lo, hi);
+		reverse(lo, lo + shift - 1);
+		reverse(lo + shift, hi);
+		for (int i = lo; i <= hi; i++)
+			pos[id[i]] = i;
+		reindex(lo, hi);
+		changeLo = lo;
+		changeHi = hi;
+		changeShift = shift;
+		modCount++;
+	}
+
+	private void reverse(int i, int j) {
+		for (; i < j; i++, j--) {
+			Node n = list[i];
+			list[i] = list[j];
+			list[j] = n;
+			int t = cls[i];
+			cls[i] = cls[j];
+			cls[j] = t;
+			t = id[i];
+			id[i] = id[j];
+			id[j] = t;
 		}
 	}
 
@@ -79,13 +251,8 @@ public class SDCNodeList {
 	public boolean shoveRight(int i0) {
 		Node n = list[i0];
 		for (int i = i0 + 1; i < list.length; i++) {
-			if (!n.isPredecessorOf(list[i])) {
-				shoveCnt = i - i0;
-				shovePos = i0;
-				n = list[i];
-				for (int j = i; j > i0; j--)
-					list[j] = list[j - 1];
-				list[i0] = n;
+			if (!reach.reaches(n, list[i])) {
+				rotate(i0, i, 1); // the node at i moves to i0
 				return true;
 			}
 		}
@@ -102,13 +269,8 @@ public class SDCNodeList {
 	public boolean shoveLeft(int i0) {
 		Node n = list[i0];
 		for (int i = i0 - 1; i >= 0; i--) {
-			if (!list[i].isPredecessorOf(n)) {
-				shoveCnt = i - i0; // < 0
-				shovePos = i0;
-				n = list[i];
-				for (int j = i; j < i0; j++)
-					list[j] = list[j + 1];
-				list[i0] = n;
+			if (!reach.reaches(list[i], n)) {
+				rotate(i, i0, i0 - i); // the node at i moves to i0
 				return true;
 			}
 		}
@@ -116,21 +278,237 @@ public class SDCNodeList {
 	}
 
 	/**
-	 * Reverts the last swap.
+	 * Moves the nodes at the positions from to from + count - 1 to the positions
+	 * to to to + count - 1. The nodes in between are shifted by count positions
+	 * in the other direction. Fails if a moved node and a shifted one depend on
+	 * each other (which takes O(count * |to - from|) queries).
+	 * 
+	 * @param from The position of the first node to move.
+	 * @param count The number of nodes to move.
+	 * @param to The new position of the first node.
+	 * @return True when the move was successful, false otherwise (i.e. nothing
+	 *         changed).
+	 */
+	public boolean move(int from, int count, int to) {
+		if (count < 1 || from == to || Math.min(from, to) < 0 || Math.max(from, to) + count > list.length)
+			return false;
+		if (from < to) {
+			for (int j = from + count; j < to + count; j++)
+				for (int i = from; i < from + count; i++)
+					if (reach.reaches(list[i], list[j]))
+						return false;
+			rotate(from, to + count - 1, to - from);
+		} else {
+			for (int j = to; j < from; j++)
+				for (int i = from; i < from + count; i++)
+					if (reach.reaches(list[j], list[i]))
+						return false;
+			rotate(to, from + count - 1, count);
+		}
+		return true;
+	}
+
+	/**
+	 * Reverts the last move (or shove).
 	 */
 	public void revert() {
-		if (shoveCnt < 0) { // revert shoveLeft
-			shoveCnt = -shoveCnt;
-			Node n = list[shovePos];
-			for (int i = 0; i < shoveCnt; i++)
-				list[shovePos - i] = list[shovePos - i - 1];
-			list[shovePos - shoveCnt] = n;
+		long h = hash, p = previousHash;
+		int hm = hashMod, pm = previousMod;
+		rotate(changeLo, changeHi, changeHi - changeLo + 1 - changeShift);
+		// the order is the one before the reverted change again
+		if (hm == modCount - 2) {
+			hashMod = modCount;
+		} else if (hm == modCount - 1 && pm == modCount - 2) {
+			hash = p;
+			hashMod = modCount;
+			previousHash = h;
+			previousMod = modCount - 1;
+		}
+	}
+
+	/**
+	 * @return The lowest index which has been changed by the last move (or its
+	 *         revert).
+	 */
+	public int changedFrom() {
+		return changeLo;
+	}
+
+	/**
+	 * @return The highest index which has been changed by the last move (or its
+	 *         revert).
+	 */
+	public int changedTo() {
+		return changeHi;
+	}
+
+	/**
+	 * Gets the number of changes of the order so far. Each successful move and
+	 * each revert counts as one change, which allows observers to detect whether
+	 * the list differs from a known state by exactly the last move.
+	 * 
+	 * @return The modification count.
+	 */
+	public int modifications() {
+		return modCount;
+	}
+
+	/**
+	 * @return True if the last move (or its revert) changed the resource
+	 *         constraints, i.e. the order of the nodes sharing a resource. If not,
+	 *         the schedule of the list is the same as before.
+	 */
+	public boolean constraintsChanged() {
+		delta();
+		return removedSize + addedSize > 0;
+	}
+
+	/**
+	 * @return The number of resource constraints which have been removed by the
+	 *         last move (or its revert).
+	 */
+	public int removedConstraints() {
+		delta();
+		return removedSize;
+	}
+
+	/**
+	 * @param i The index of the removed constraint (0 &lt;= i &lt;
+	 *            removedConstraints()).
+	 * @return The node which preceded the other one on its resource.
+	 */
+	public Node removedFrom(int i) {
+		delta();
+		return removed[2 * i];
+	}
+
+	/**
+	 * @param i The index of the removed constraint (0 &lt;= i &lt;
+	 *            removedConstraints()).
+	 * @return The node which had to wait for the other one.
+	 */
+	public Node removedTo(int i) {
+		delta();
+		return removed[2 * i + 1];
+	}
+
+	/**
+	 * @return The number of resource constraints which have been added by the last
+	 *         move (or its revert).
+	 */
+	public int addedConstraints() {
+		delta();
+		return addedSize;
+	}
+
+	/**
+	 * @param i The index of the added constraint (0 &lt;= i &lt; addedConstraints()).
+	 * @return The node which precedes the other one on its resource.
+	 */
+	public Node addedFrom(int i) {
+		delta();
+		return added[2 * i];
+	}
+
+	/**
+	 * @param i The index of the added constraint (0 &lt;= i &lt; addedConstraints()).
+	 * @return The node which has to wait for the other one.
+	 */
+	public Node addedTo(int i) {
+		delta();
+		return added[2 * i + 1];
+	}
+
+	/**
+	 * Computes the resource constraints changed by the last move (or its revert),
+	 * if not done yet. Each node precedes the node k ranks later on its resource
+	 * (see nextOfType()). The rotation of the changed range rotates the ranks of
+	 * each resource within the range, so only the pairs with a rank between the
+	 * first rank in the range - k and the last one can differ.
+	 */
+	private void delta() {
+		if (deltaMod == modCount)
+			return;
+		deltaMod = modCount;
+		removedSize = addedSize = 0;
+		deltaHash = 0;
+		for (int c = 0; c < classes; c++) {
+			int[] m = members[c];
+			int k = classCount[c], lo = lowerBound(m, changeLo), len = lowerBound(m, changeHi + 1) - lo;
+			// the nodes which have been rotated to the front of the range
+			int shift = lowerBound(m, changeLo + changeShift) - lo;
+			if (shift == 0 || shift == len)
+				continue;
+			for (int r = Math.max(lo - k, 0); r < lo + len && r + k < m.length; r++) {
+				// pairs of the old order which have not stayed k ranks apart
+				int u = rotated(r, lo, len, shift), v = rotated(r + k, lo, len, shift);
+				if (v - u != k) {
+					removed = pair(removed, removedSize++, list[m[u]], list[m[v]]);
+					deltaHash ^= key(id[m[u]], id[m[v]]);
+				}
+				// pairs of the new order which have not been k ranks apart
+				if (rotated(r + k, lo, len, len - shift) - rotated(r, lo, len, len - shift) != k) {
+					added = pair(added, addedSize++, list[m[r]], list[m[r + k]]);
+					deltaHash ^= key(id[m[r]], id[m[r + k]]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The rank r after rotating the ranks lo to lo + len - 1 by shift.
+	 */
+	private static int rotated(int r, int lo, int len, int shift) {
+		return r < lo || r >= lo + len ? r : lo + (r - lo + shift) % len;
+	}
+
+	/**
+	 * Gets a hash of the resource constraints, i.e. lists which imply the same
+	 * constraints (and thus the same schedule) have the same hash. This is the XOR
+	 * of a pseudo-random key of each constraint (Zobrist hashing), so it is
+	 * updated with the constraints changed by the last move. Reverts restore the
+	 * previous hash. The hash is only recalculated from scratch, if it has not
+	 * been requested after each move.
+	 * 
+	 * @return The hash.
+	 */
+	public long hash() {
+		if (hashMod == modCount)
+			return hash;
+		previousHash = hash;
+		previousMod = hashMod;
+		if (hashMod == modCount - 1) {
+			delta();
+			hash ^= deltaHash;
 		} else {
-			Node n = list[shovePos];
-			for (int i = 0; i < shoveCnt; i++)
-				list[shovePos + i] = list[shovePos + i + 1];
-			list[shovePos + shoveCnt] = n;
+			hash = 0;
+			for (int c = 0; c < classes; c++) {
+				int[] m = members[c];
+				for (int r = 0, k = classCount[c]; r + k < m.length; r++)
+					hash ^= key(id[m[r]], id[m[r + k]]);
+			}
 		}
+		hashMod = modCount;
+		return hash;
+	}
+
+	/**
+	 * @return The key of the constraint from u to v (by their index in graph).
+	 */
+	private static long key(int u, int v) {
+		// finalizer of SplitMix64
+		long z = ((long) u << 32 | v) + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	private static Node[] pair(Node[] pairs, int i, Node from, Node to) {
+		if (2 * i + 2 > pairs.length)
+			pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+		pairs[2 * i] = from;
+		pairs[2 * i + 1] = to;
+		return pairs;
 	}
 
 	/**
@@ -143,6 +521,11 @@ public class SDCNodeList {
 	 * which uses the same resource as ADD. <br>
 	 * <br>
 	 * See also the lecture slides chapter 3, slide 99 et seqq. and 110 et seqq.
+	 * <br>
+	 * <br>
+	 * The list keeps the positions of the nodes of each resource, so this takes
+	 * O(1) if the node before start uses the same resource (e.g. start = i + 1 for
+	 * a node of type rt at i) and O(log n) otherwise.
 	 * 
 	 * @param rt The type.
 	 * @param start The position in the list where to start the search.
@@ -150,16 +533,87 @@ public class SDCNodeList {
 	 *         has been found.
 	 */
 	public Node nextOfType(RT rt, int start) {
-		int c = rtCount.get(rt);
-		Set<RT> res = rtSet.get(rt);
-		for (int i = start; i < list.length; i++) {
-			if (res.contains(list[i].getRT())) {
-				c--;
-				if (c == 0)
-					return list[i];
-			}
-		}
-		return null;
+		int c = typeClass[rt.ordinal()];
+		int[] m = members[c];
+		int r = start > 0 && start <= list.length && cls[start - 1] == c ? rank[start - 1] + 1 : lowerBound(m, start);
+		r += classCount[c] - 1;
+		return r < m.length ? list[m[r]] : null;
+	}
+
+	/**
+	 * Gets the index of the resource which executes the specified type. Types
+	 * sharing the same resource have the same index.
+	 * 
+	 * @param rt The type.
+	 * @return The resource index in range 0 &lt;= index &lt; resourceClasses().
+	 */
+	public int resourceClass(RT rt) {
+		return rtClass.get(rt);
+	}
+
+	/**
+	 * @return The number of distinct resources used by the nodes in this list.
+	 */
+	public int resourceClasses() {
+		return classes;
+	}
+
+	/**
+	 * Gets the number of resources compatible with the specified type.
+	 * 
+	 * @param rt The type.
+	 * @return The number of resource instances.
+	 */
+	public int resourceCount(RT rt) {
+		return rtCount.get(rt);
+	}
+
+	/**
+	 * Gets the position of the next node on the same resource as the node at the
+	 * specified position.
+	 * 
+	 * @param i The position.
+	 * @return The position of the next node sharing the resource, -1 if there is
+	 *         none.
+	 */
+	public int nextOnResource(int i) {
+		int[] m = members[cls[i]];
+		return rank[i] + 1 < m.length ? m[rank[i] + 1] : -1;
+	}
+
+	/**
+	 * Gets the position of the previous node on the same resource as the node at
+	 * the specified position.
+	 * 
+	 * @param i The position.
+	 * @return The position of the previous node sharing the resource, -1 if there
+	 *         is none.
+	 */
+	public int previousOnResource(int i) {
+		return rank[i] > 0 ? members[cls[i]][rank[i] - 1] : -1;
+	}
+
+	/**
+	 * Checks whether the node at position i has to precede the node at position
+	 * j, i.e. it is a (long-distance) predecessor.
+	 * 
+	 * @param i The position of the potential predecessor.
+	 * @param j The position of the potential successor.
+	 * @return True if the node at i reaches the node at j.
+	 */
+	public boolean reaches(int i, int j) {
+		return reach.reaches(list[i], list[j]);
+	}
+
+	/**
+	 * Gets the position of the specified node.
+	 * 
+	 * @param n The node.
+	 * @return Its position or -1, if the node is not in the list.
+	 */
+	public int indexOf(Node n) {
+		Integer v = graph.id(n);
+		return v == null ? -1 : pos[v];
 	}
 
 	/**
@@ -0,0 +1,164 @@
+package scheduler.sdcutil;
+
+import java.util.HashMap;
+import java.util.Map.Entry;
+
+import lpsolve.LpSolve;
+import lpsolve.LpSolveException;
+import scheduler.Node;
+import scheduler.TimingConstraints;
+
+/**
+ * Solves the system of difference constraints which is given by the flow
+ * dependencies of a graph and the resource constraints implied by the order of
+ * an {@link SDCNodeList}.
+ * 
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public abstract class SDCSolver {
+	/**
+	 * Maps each node to the index of its start time variable.
+	 */
+	protected final HashMap<Node, Integer> vars;
+	/**
+	 * The nodes by their variable index.
+	 */
+	protected final Node[] nodes;
+	/**
+	 * Additional constraints between the start times (may be null).
+	 */
+	protected final TimingConstraints timing;
+
+	protected SDCSolver(HashMap<Node, Integer> vars, TimingConstraints timing) {
+		this.vars = vars;
+		this.timing = timing;
+		nodes = new Node[vars.size()];
+		for (Entry<Node, Integer> e : vars.entrySet())
+			nodes[e.getValue()] = e.getKey();
+	}
+
+	/**
+	 * Calculates the start times of all nodes for the current order of the node
+	 * list.
+	 * 
+	 * @param list The node list.
+	 * @return The start times indexed by the variable index of the nodes or null,
+	 *         if the order is infeasible. The array may be reused by the next
+	 *         call.
+	 */
+	public abstract int[] solve(SDCNodeList list);
+
+	/**
+	 * Called instead of solve() after a shove which did not change the resource
+	 * constraints (see {@link SDCNodeList#constraintsChanged()}), i.e. the result
+	 * of the last call to solve() is still valid. Solvers keeping state between
+	 * calls must adopt the new order, so revert() and solve() work as usual. The
+	 * default implementation calls solve().
+	 * 
+	 * @param list The node list.
+	 */
+	public void unchanged(SDCNodeList list) {
+		solve(list);
+	}
+
+	/**
+	 * Notifies the solver that the last shove of the node list has been reverted,
+	 * i.e. the list has the order of the second last call to solve() again.
+	 * Solvers keeping state between calls can restore it here.
+	 */
+	public void revert() {
+	}
+
+	/**
+	 * Called when a shove has been evaluated without calling solve() (e.g. by a
+	 * cache of the costs) and reverted, i.e. the list has the order of the last
+	 * call to solve() again. Solvers keeping state between calls must adopt the
+	 * list, so solve() works as usual. The default implementation does nothing.
+	 * 
+	 * @param list The node list.
+	 */
+	public void restored(SDCNodeList list) {
+	}
+
+	/**
+	 * @return The total number of simplex iterations of all calls to solve() or
+	 *         -1, if the solver does not use the simplex method.
+	 */
+	public long iterations() {
+		return -1;
+	}
+
+	/**
+	 * @return The number of simplex iterations of the last call to solve() or -1,
+	 *         if the solver does not use the simplex method.
+	 */
+	public long lastIterations() {
+		return -1;
+	}
+
+	/**
+	 * @return The number of calls to solve() which ran the simplex method or -1,
+	 *         if the solver does not use the simplex method.
+	 */
+	public long solves() {
+		return -1;
+	}
+
+	/**
+	 * Frees resources held outside of the Java heap (e.g. native models). The
+	 * solver must not be used afterwards.
+	 */
+	public void release() {
+	}
+
+	/**
+	 * Sets up the linear program of the SDC with bounding, flow and timing
+	 * constraints for the lpsolve based engines. The start time of the node with
+	 * variable index i is column i + 1, column nodes.length + 1 is the latest
+	 * start time tMax which is minimized. The start times are non-negative by
+	 * the default bounds of lpsolve.
+	 */
+	LpSolve getBaseLP() throws LpSolveException {
+		int tmax = nodes.length + 1;
+		LpSolve lp;
+		synchronized (LpSolve.class) { // LpSolve registers its models in a static map
+			lp = LpSolve.makeLp(0, nodes.length + 1);
+		}
+		lp.setVerbose(LpSolve.CRITICAL);
+		lp.setMinim();
+		lp.setObjFnex(1, new double[] { 1 }, new int[] { tmax });
+		lp.setAddRowmode(true);
+		for (int v = 0; v < nodes.length; v++) {
+			// t_n <= tMax (described as t_n - tMax <= 0)
+			addRow(lp, v + 1, tmax, 0);
+
+			// flow constraints (t_p - t_n <= -delay(t_p))
+			for (Node p : nodes[v].predecessors())
+				addRow(lp, vars.get(p) + 1, v + 1, -p.getDelay());
+		}
+		if (timing != null)
+			for (TimingConstraints.Constraint c : timing) {
+				// t_u - t_v <= c
+				addRow(lp, c.u == null ? 0 : vars.get(c.u) + 1, c.v == null ? 0 : vars.get(c.v) + 1, c.c);
+			}
+		lp.setAddRowmode(false);
+		return lp;
+	}
+
+	/**
+	 * Adds the sparse row C_u - C_v &lt;= rhs to an lpsolve model, whereas a
+	 * column of 0 is omitted. The columns are passed in ascending order, since
+	 * the bundled lpsolve version mixes up the coefficients otherwise.
+	 */
+	static void addRow(LpSolve lp, int u, int v, double rhs) throws LpSolveException {
+		if (u == 0)
+			lp.addConstraintex(1, new double[] { -1 }, new int[] { v }, LpSolve.LE, rhs);
+		else if (v == 0)
+			lp.addConstraintex(1, new double[] { 1 }, new int[] { u }, LpSolve.LE, rhs);
+		else if (u < v)
+			lp.addConstraintex(2, new double[] { 1, -1 }, new int[] { u, v }, LpSolve.LE, rhs);
+		else
+			lp.addConstraintex(2, new double[] { -1, 1 }, new int[] { v, u }, LpSolve.LE, rhs);
+	}
+}
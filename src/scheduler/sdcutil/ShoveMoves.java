@@ -0,0 +1,25 @@
+package scheduler.sdcutil;
+
+import java.util.Random;
+
+import scheduler.Schedule;
+
+/**
+ * Shoves a uniformly chosen node to the left or right, i.e. swaps it with the
+ * nearest node it does not depend on.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class ShoveMoves extends MoveGenerator {
+
+	@Override
+	public Move generate(SDCNodeList list, Schedule current, Random random) {
+		Move move;
+		do {
+			int i0 = (int) Math.round((2 * random.nextDouble() - 1) * (list.length - 1));
+			move = shove(list, Math.abs(i0), i0 < 0);
+		} while (move == null);
+		return move;
+	}
+}
@@ -0,0 +1,45 @@
+package scheduler.sdcutil;
+
+import java.util.Random;
+
+import scheduler.Schedule;
+
+/**
+ * Swaps a random node with the next or previous node on the same resource, if
+ * they do not depend on each other. Unlike a shove, this always changes the
+ * order on the resource.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public class SwapMoves extends MoveGenerator {
+
+	@Override
+	public Move generate(SDCNodeList list, Schedule current, Random random) {
+		for (int k = 0; k < ATTEMPTS; k++) {
+			Move move = swap(list, random.nextInt(list.length), random.nextBoolean());
+			if (move != null)
+				return move;
+		}
+		return new ShoveMoves().generate(list, current, random);
+	}
+
+	/**
+	 * Swaps the node at position i with its neighbour on the resource by moving
+	 * either of them past the other one.
+	 *
+	 * @param next Whether to swap with the next (or the previous) node.
+	 * @return The move or null, if the nodes cannot be swapped.
+	 */
+	static Move swap(SDCNodeList list, int i, boolean next) {
+		int j = next ? list.nextOnResource(i) : list.previousOnResource(i);
+		if (j == -1)
+			return null;
+		int p = Math.min(i, j), q = Math.max(i, j);
+		if (list.move(p, 1, q))
+			return new Move(p, 1, q);
+		if (list.move(q, 1, p))
+			return new Move(q, 1, p);
+		return null;
+	}
+}
@@ -0,0 +1,108 @@
+package scheduler.sdcutil;
+
+/**
+ * Decides when simulated annealing ends. A policy may keep state of the
+ * current run, so each run needs its own instance.
+ *
+ * @author Mitja Stachowiak, Ludwig Meysel
+ *
+ */
+public abstract class TerminationPolicy {
+
+	/**
+	 * Is called after each step.
+	 *
+	 * @return Whether to end the annealing immediately. False by default.
+	 */
+	public boolean step(AnnealingStatistics s) {
+		return false;
+	}
+
+	/**
+	 * Is called after each sweep.
+	 *
+	 * @return Whether to end the annealing.
+	 */
+	public abstract boolean done(AnnealingStatistics s);
+
+	/**
+	 * @return A policy which ends the annealing as soon as this or the other
+	 *         policy does.
+	 */
+	public TerminationPolicy or(TerminationPolicy other) {
+		TerminationPolicy self = this;
+		return new TerminationPolicy() {
+			@Override
+			public boolean step(AnnealingStatistics s) {
+				return self.step(s) || other.step(s);
+			}
+
+			@Override
+			public boolean done(AnnealingStatistics s) {
+				return self.done(s) || other.done(s);
+			}
+		};
+	}
+
+	/**
+	 * Ends the annealing once the ratio of accepted steps drops to the given
+	 * value.
+	 */
+	public static class Acceptance extends TerminationPolicy {
+		private final double ratio;
+
+		public Acceptance(double ratio) {
+			this.ratio = ratio;
+		}
+
+		@Override
+		public boolean done(AnnealingStatistics s) {
+			return s.acceptanceRatio() <= ratio;
+		}
+	}
+
+	/**
+	 * Ends the annealing once the lowest cost has not been improved for the
+	 * given number of steps.
+	 */
+	public static class Stall extends TerminationPolicy {
+		private final long steps;
+
+		public Stall(long steps) {
+			if (steps < 1)
+				throw new IllegalArgumentException("The number of steps must be positive.");
+			this.steps = steps;
+		}
+
+		@Override
+		public boolean step(AnnealingStatistics s) {
+			return s.iterations() - s.lastImprovement() >= steps;
+		}
+
+		@Override
+		public boolean done(AnnealingStatistics s) {
+			return step(s);
+		}
+	}
+
+	/**
+	 * Ends the annealing after the given number of steps.
+	 */
+	public static class Budget extends TerminationPolicy {
+		private final long steps;
+
+		public Budget(long steps) {
+			this.steps = steps;
+		}
+
+		@Override
+		public boolean step(AnnealingStatistics s) {
+			return s.iterations() >= steps;
+		}
+
+		@Override
+		public boolean done(AnnealingStatistics s) {
+			return step(s);
+		}
+	}
+}